@@ -0,0 +1,58 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AnalyzeBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    EmployeeRepository mapRepo;
+    ColumnarEmployeeRepository columnarRepo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var parsed = CsvEmployeeParser.parse(Workload.csv(size));
+        mapRepo = new EmployeeRepository(parsed.employees());
+        columnarRepo = ColumnarEmployeeRepository.of(mapRepo);
+    }
+
+    // includes the copy into columns that analyze() makes for map-based repositories
+    @Benchmark
+    public AnalysisReport analyzeMapRepository() {
+        return new OrganizationAnalyzer(mapRepo).analyze(size, 0);
+    }
+
+    @Benchmark
+    public AnalysisReport analyzeColumnar() {
+        return new OrganizationAnalyzer(columnarRepo).analyze(size, 0);
+    }
+
+    @Benchmark
+    public AnalysisReport analyzeParallel() {
+        return new OrganizationAnalyzer(columnarRepo).analyzeParallel(size, 0);
+    }
+
+    // Every manager's subordinate total. Under -prof perfasm the hot loop of subordinateCents
+    // should be packed vector adds (vpaddq), with no overflow checks inside it.
+    @Benchmark
+    public long subordinateCents() {
+        long total = 0;
+        for (int i = 0; i < columnarRepo.size(); i++) total ^= columnarRepo.subordinateCents(i);
+        return total;
+    }
+}
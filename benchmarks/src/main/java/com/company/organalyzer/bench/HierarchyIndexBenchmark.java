@@ -0,0 +1,51 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.HierarchyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class HierarchyIndexBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    ColumnarEmployeeRepository org;
+    HierarchyIndex index;
+    SplittableRandom rnd;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var builder = ColumnarEmployeeRepository.builder(size);
+        CsvEmployeeParser.parse(Workload.csv(size), builder::add);
+        org = builder.build();
+        index = HierarchyIndex.build(org);
+        rnd = new SplittableRandom(1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HierarchyIndex build() {
+        return HierarchyIndex.build(org);
+    }
+
+    @Benchmark
+    public int lowestCommonManager() {
+        return index.lowestCommonManager(rnd.nextInt(org.size()), rnd.nextInt(org.size()));
+    }
+
+    @Benchmark
+    public int managerTwoLevelsUp() {
+        return index.ancestor(rnd.nextInt(org.size()), 2);
+    }
+}
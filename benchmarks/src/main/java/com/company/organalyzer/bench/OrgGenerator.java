@@ -0,0 +1,132 @@
+package com.company.organalyzer.bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * Writes a synthetic employees CSV in the same format as src/main/resources/employees.csv.
+ *
+ * Employees are laid out level by level: each manager gets up to fanOut direct reports,
+ * and once maxDepth is reached new employees are spread over the managers above it.
+ * Cycles are made by pointing a manager at one of their own reports, duplicates repeat
+ * an earlier id with a fresh salary, and bad lines mix the parser's error cases.
+ * The same Spec always produces the same file.
+ */
+public final class OrgGenerator {
+
+    public record Spec(int size, int fanOut, int maxDepth,
+                       double cycleRate, double duplicateRate, double badLineRate, long seed) {
+
+        public Spec {
+            if (size <= 0) throw new IllegalArgumentException("Size must be positive: " + size);
+            if (fanOut <= 0) throw new IllegalArgumentException("Fan-out must be positive: " + fanOut);
+            if (maxDepth <= 0) throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+            checkRate("Cycle", cycleRate);
+            checkRate("Duplicate", duplicateRate);
+            checkRate("Bad line", badLineRate);
+        }
+
+        // A realistic mix: wide and shallow, a few long chains, a sprinkling of data errors.
+        public static Spec of(int size) {
+            return new Spec(size, 8, 12, 0.0005, 0.001, 0.001, 42);
+        }
+
+        public Spec withSize(int size) {
+            return new Spec(size, fanOut, maxDepth, cycleRate, duplicateRate, badLineRate, seed);
+        }
+
+        private static void checkRate(String name, double rate) {
+            if (rate < 0 || rate > 1) throw new IllegalArgumentException(name + " rate must be in [0, 1]: " + rate);
+        }
+    }
+
+    // Bump whenever the file written for a Spec changes, so cached workloads are regenerated.
+    static final int VERSION = 1;
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId";
+    private static final String[] FIRST = {
+            "Joe", "Martin", "Alice", "Bob", "Charlie", "Diana", "Eve", "Frank", "Grace", "Hank",
+            "Ivy", "Jack", "Karen", "Liam", "Mona", "Nina", "Oscar", "Paula", "Quinn", "Ruth"
+    };
+    private static final String[] LAST = {
+            "Doe", "Chekov", "Hasacat", "Smith", "Brown", "Prince", "Adams", "Miller", "Lee", "Stone",
+            "Green", "White", "Black", "Young", "King", "Wright", "Lopez", "Hill", "Scott", "Baker"
+    };
+
+    private OrgGenerator() {}
+
+    public static void write(Spec spec, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(spec, out);
+        }
+    }
+
+    public static void write(Spec spec, OutputStream out) throws IOException {
+        Random rnd = new Random(spec.seed());
+        long[] managers = managers(spec, rnd);
+
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        w.write(HEADER);
+        w.write('\n');
+
+        StringBuilder line = new StringBuilder(64);
+        for (int i = 1; i <= spec.size(); i++) {
+            if (rnd.nextDouble() < spec.badLineRate()) {
+                w.write(badLine(i, rnd));
+                w.write('\n');
+            }
+            if (i > 1 && rnd.nextDouble() < spec.duplicateRate()) {
+                employee(line, 1 + rnd.nextInt(i - 1), managers, rnd);
+                w.append(line).write('\n');
+            }
+            employee(line, i, managers, rnd);
+            w.append(line).write('\n');
+        }
+        w.flush();
+    }
+
+    // managers[i] is the manager of employee i, 0 for the CEO (index 0 is unused).
+    private static long[] managers(Spec spec, Random rnd) {
+        int n = spec.size();
+        long[] managers = new long[n + 1];
+        int[] depth = new int[n + 1];
+        int shallowEnd = 1;     // employees 1..shallowEnd are above maxDepth
+
+        for (int i = 2; i <= n; i++) {
+            int mgr = (i - 2) / spec.fanOut() + 1;
+            if (depth[mgr] >= spec.maxDepth()) mgr = 1 + rnd.nextInt(shallowEnd);
+            managers[i] = mgr;
+            depth[i] = depth[mgr] + 1;
+            if (depth[i] < spec.maxDepth()) shallowEnd = i;
+        }
+
+        int cycles = (int) (n * spec.cycleRate());
+        for (int c = 0; c < cycles && n > 2; c++) {
+            int a = 2 + rnd.nextInt(n - 1);
+            long b = managers[a];
+            if (b > 1) managers[(int) b] = a;
+        }
+        return managers;
+    }
+
+    private static void employee(StringBuilder line, int id, long[] managers, Random rnd) {
+        line.setLength(0);
+        line.append(id).append(',')
+                .append(FIRST[rnd.nextInt(FIRST.length)]).append(',')
+                .append(LAST[rnd.nextInt(LAST.length)]).append(',')
+                .append(30000 + 1000 * rnd.nextInt(150)).append(',');
+        if (managers[id] != 0) line.append(managers[id]);
+    }
+
+    private static String badLine(int id, Random rnd) {
+        return switch (rnd.nextInt(4)) {
+            case 0 -> id + ",Bad,Salary,abc," + Math.max(1, id - 1);
+            case 1 -> id + ",Negative,Salary,-100," + Math.max(1, id - 1);
+            case 2 -> "x" + id + ",Bad,Id,50000,1";
+            default -> id + ",Missing,Columns";
+        };
+    }
+}
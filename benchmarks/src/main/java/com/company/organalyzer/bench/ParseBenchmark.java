@@ -0,0 +1,49 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ParseBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Workload.csv(size);
+    }
+
+    @Benchmark
+    public List<String> parseStream(Blackhole bh) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return CsvEmployeeParser.parse(in, bh::consume);
+        }
+    }
+
+    @Benchmark
+    public List<String> parseMapped(Blackhole bh) throws IOException {
+        return CsvEmployeeParser.parse(file, bh::consume);
+    }
+
+    @Benchmark
+    public CsvEmployeeParser.ParseResult parseParallel() throws IOException {
+        return CsvEmployeeParser.parseParallel(file);
+    }
+}
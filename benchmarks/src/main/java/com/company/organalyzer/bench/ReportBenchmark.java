@@ -0,0 +1,36 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ReportBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    AnalysisReport report;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var builder = ColumnarEmployeeRepository.builder(size);
+        CsvEmployeeParser.parse(Workload.csv(size), builder::add);
+        report = new OrganizationAnalyzer(builder.build()).analyze(size, 0);
+    }
+
+    @Benchmark
+    public String render() {
+        return report.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class RepositoryBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        employees = CsvEmployeeParser.parse(Workload.csv(size)).employees();
+    }
+
+    @Benchmark
+    public EmployeeRepository mapRepository() {
+        return new EmployeeRepository(employees);
+    }
+
+    @Benchmark
+    public ColumnarEmployeeRepository columnarRepository() {
+        var builder = ColumnarEmployeeRepository.builder(employees.size());
+        for (Employee e : employees) builder.add(e);
+        return builder.build();
+    }
+}
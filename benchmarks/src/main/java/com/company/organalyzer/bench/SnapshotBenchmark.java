@@ -0,0 +1,40 @@
+package com.company.organalyzer.bench;
+
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.SnapshotReader;
+import com.company.organalyzer.service.SnapshotWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SnapshotBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int size;
+
+    Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var builder = ColumnarEmployeeRepository.builder(size);
+        CsvEmployeeParser.parse(Workload.csv(size), builder::add);
+        snapshot = Files.createTempFile("org-bench-", ".snap");
+        snapshot.toFile().deleteOnExit();
+        SnapshotWriter.write(builder.build(), snapshot);
+    }
+
+    @Benchmark
+    public ColumnarEmployeeRepository read() throws IOException {
+        return SnapshotReader.read(snapshot);
+    }
+}
@@ -0,0 +1,32 @@
+package com.company.organalyzer.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Generated CSV files, reused across trials of the same fork and deleted on exit. The name
+// carries the generator version and the whole Spec, so a file left behind by another
+// version or spec is never picked up.
+final class Workload {
+
+    private Workload() {}
+
+    static Path csv(int size) throws IOException {
+        OrgGenerator.Spec spec = OrgGenerator.Spec.of(size);
+        Path file = Path.of(System.getProperty("java.io.tmpdir"), name(spec));
+        if (!Files.exists(file)) {
+            Path tmp = Files.createTempFile(file.getParent(), "org-bench-", ".tmp");
+            OrgGenerator.write(spec, tmp);
+            Files.move(tmp, file);
+            file.toFile().deleteOnExit();
+        }
+        return file;
+    }
+
+    private static String name(OrgGenerator.Spec spec) {
+        return String.format(Locale.ROOT, "org-bench-v%d-%d-%d-%d-%s-%s-%s-%d.csv", OrgGenerator.VERSION,
+                spec.size(), spec.fanOut(), spec.maxDepth(),
+                spec.cycleRate(), spec.duplicateRate(), spec.badLineRate(), spec.seed());
+    }
+}
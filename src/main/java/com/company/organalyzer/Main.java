@@ -1,15 +1,60 @@
 package com.company.organalyzer;
 
+import com.company.organalyzer.metrics.Metrics;
 import com.company.organalyzer.parser.CsvEmployeeParser;
-import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.report.CsvEncoder;
+import com.company.organalyzer.report.JsonLinesEncoder;
+import com.company.organalyzer.report.ReportWriter;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.RuleEngine;
+import com.company.organalyzer.server.AnalysisServer;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.ExternalAnalyzer;
+import com.company.organalyzer.service.OrgQuery;
 import com.company.organalyzer.service.OrganizationAnalyzer;
+import com.company.organalyzer.service.PipelinedAnalyzer;
+import com.company.organalyzer.service.ShardedAnalyzer;
+import com.company.organalyzer.service.SnapshotDiff;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
+    private static final int DEFAULT_PORT = 8080;
+
     public static void main(String[] args) {
 
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("analyze")) {
+            analyze(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("external")) {
+            external(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("diff")) {
+            diff(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("findings")) {
+            findings(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("query")) {
+            query(args);
+            return;
+        }
+
         try {
             InputStream in = Main.class.getClassLoader()
                     .getResourceAsStream("employees.csv");
@@ -19,22 +64,184 @@ public class Main {
                 System.exit(1);
             }
 
-            var parsed = CsvEmployeeParser.parse(in);
-            var repo = new EmployeeRepository(parsed.employees());
-            var analyzer = new OrganizationAnalyzer(repo);
+            // parse, repository build and analysis overlap; the report is the same as running them in turn
+            Writer out = new OutputStreamWriter(System.out, System.out.charset());
+            PipelinedAnalyzer.run(in, out, RuleEngine.standard(thresholds()));
+            out.write(System.lineSeparator());
+            writeMetrics(out);
+            out.flush();
 
-            int invalid =
-                    parsed.errors().size()
-                            + repo.getInvalidManagers().size()
-                            + repo.getDuplicateIds().size()
-                            + analyzer.getCircularReferences().size();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // analyze <csv> [<csv>...]: one report over all files, e.g. one file per business unit
+    private static void analyze(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: analyze <employees.csv> [<employees.csv>...]");
+            System.exit(2);
+        }
 
-            var report = analyzer.analyze(parsed.employees().size(), invalid);
+        try {
+            List<Path> files = new ArrayList<>();
+            for (int k = 1; k < args.length; k++) files.add(Path.of(args[k]));
+            var result = ShardedAnalyzer.analyze(files, ForkJoinPool.commonPool(), RuleEngine.standard(thresholds()));
 
-            System.out.println(report);
+            Writer out = new OutputStreamWriter(System.out, System.out.charset());
+            new ReportWriter(out).write(result.report());
+            out.write(System.lineSeparator());
+            writeMetrics(out);
+            out.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // external <csv> [budget-mb]: bounded-memory analysis through temporary spill files
+    private static void external(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: external <employees.csv> [memory budget in MB]");
+            System.exit(2);
+        }
+
+        try {
+            long budget = args.length == 3 ? Long.parseLong(args[2]) << 20 : ExternalAnalyzer.DEFAULT_BUDGET;
+            var analyzer = new ExternalAnalyzer(budget, Path.of(System.getProperty("java.io.tmpdir")), thresholds());
+            var report = analyzer.analyze(Path.of(args[1]));
+
+            Writer out = new OutputStreamWriter(System.out, System.out.charset());
+            new ReportWriter(out).write(report);
+            out.write(System.lineSeparator());
+            writeMetrics(out);
+            out.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // diff <before> <after> [budget-mb]: what changed between two exports (CSV or .snap); with a
+    // budget, two CSVs are compared through spill files instead of in memory
+    private static void diff(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: diff <before.csv|.snap> <after.csv|.snap> [memory budget in MB]");
+            System.exit(2);
+        }
+        if (args.length == 4 && (args[1].endsWith(".snap") || args[2].endsWith(".snap"))) {
+            System.err.println("A memory budget needs two CSV exports; .snap snapshots are compared in memory");
+            System.exit(2);
+        }
+
+        try {
+            Path before = Path.of(args[1]);
+            Path after = Path.of(args[2]);
+            var delta = args.length == 4
+                    ? SnapshotDiff.diff(before, after, Long.parseLong(args[3]) << 20,
+                            Path.of(System.getProperty("java.io.tmpdir")), thresholds())
+                    : SnapshotDiff.diff(before, after, thresholds());
 
+            Writer out = new OutputStreamWriter(System.out, System.out.charset());
+            out.write(delta.toString());
+            out.write(System.lineSeparator());
+            writeMetrics(out);
+            out.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // findings <csv> [jsonl|csv]: every finding as a machine-readable record, streamed as it is found
+    private static void findings(String[] args) {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !List.of("jsonl", "csv").contains(args[2]))) {
+            System.err.println("Usage: findings <employees.csv> [jsonl|csv]");
+            System.exit(2);
+        }
+
+        try {
+            Path file = Path.of(args[1]);
+            var builder = ColumnarEmployeeRepository.builder(0);
+            CsvEmployeeParser.parse(file, builder::add);
+            var analyzer = new OrganizationAnalyzer(builder.build(), thresholds());
+
+            if (args.length == 3 && args[2].equals("csv")) {
+                var encoder = new CsvEncoder(System.out);
+                analyzer.streamFindings(encoder);
+                encoder.flush();
+            } else {
+                var encoder = new JsonLinesEncoder(System.out);
+                analyzer.streamFindings(encoder);
+                encoder.flush();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // query <csv> employee|team <id> | category <type>: findings for one employee, team or type as JSON Lines
+    private static void query(String[] args) {
+        if (args.length != 4 || !List.of("employee", "team", "category").contains(args[2])) {
+            System.err.println("Usage: query <employees.csv> employee|team <id> | category <finding type>");
+            System.exit(2);
+        }
+
+        try {
+            var builder = ColumnarEmployeeRepository.builder(0);
+            CsvEmployeeParser.parse(Path.of(args[1]), builder::add);
+            var query = new OrgQuery(builder.build(), thresholds());
+
+            var found = switch (args[2]) {
+                case "employee" -> query.employee(Long.parseLong(args[3]));
+                case "team" -> query.team(Long.parseLong(args[3]));
+                default -> query.category(args[3]);
+            };
+            var encoder = new JsonLinesEncoder(System.out);
+            for (var f : found) encoder.accept(f);
+            encoder.flush();
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // -Danalysis.minMultiplier, -Danalysis.maxMultiplier and -Danalysis.maxDepth override the defaults
+    private static AnalysisThresholds thresholds() {
+        return AnalysisThresholds.fromProperties(System.getProperties());
+    }
+
+    // -Dorganalyzer.metrics=<file> writes the stage summary as JSON; "-" appends it to the report
+    private static void writeMetrics(Writer out) throws IOException {
+        String target = System.getProperty(Metrics.PROPERTY);
+        if (target == null) return;
+        if (target.equals("-")) {
+            out.write(Metrics.toJson());
+            out.write(System.lineSeparator());
+        } else {
+            Metrics.writeJson(Path.of(target));
+        }
+    }
+
+    // serve <csv> [port]
+    private static void serve(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: serve <employees.csv> [port]");
+            System.exit(2);
+        }
+
+        try {
+            int port = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+            var server = new AnalysisServer(Path.of(args[1]), port, RuleEngine.standard(thresholds()));
+            server.start();
+            System.out.println("Serving analysis of " + args[1] + " on port " + server.port());
         } catch (Exception e) {
             e.printStackTrace();
+            System.exit(1);
         }
     }
 }
@@ -0,0 +1,144 @@
+package com.company.organalyzer.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * In-process registry for pipeline timings. Code marks a stage with
+ *
+ *   try (Stage s = Metrics.stage("parse")) { ...; s.rows(n); }
+ *
+ * and reports collection sizes with Metrics.peak(name, size). Every stage is also emitted as
+ * a JFR event (organalyzer.Stage), so a flight recording lines stages up with GC and I/O.
+ *
+ * Metrics are off unless enabled, or unless the organalyzer.metrics system property names a
+ * file for the JSON summary. While off, stage() hands back one shared no-op Stage and peak()
+ * returns at once: a volatile read per call, nothing allocated.
+ */
+public final class Metrics {
+
+    public static final String PROPERTY = "organalyzer.metrics";
+
+    private static volatile boolean enabled = System.getProperty(PROPERTY) != null;
+
+    // Stage totals in first-seen order; stages are coarse, so a lock is cheap enough.
+    private static final Map<String, Totals> stages = new LinkedHashMap<>();
+    private static final Map<String, Long> peaks = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static boolean enabled() { return enabled; }
+
+    public static void enable() { enabled = true; }
+
+    public static void disable() { enabled = false; }
+
+    public static void reset() {
+        synchronized (stages) {
+            stages.clear();
+        }
+        peaks.clear();
+    }
+
+    public static Stage stage(String name) {
+        return enabled ? new Stage(name) : Stage.NOOP;
+    }
+
+    // Keeps the largest size seen under this name.
+    public static void peak(String name, long size) {
+        if (enabled) peaks.merge(name, size, Math::max);
+    }
+
+    static void record(String name, long nanos, long rows, long allocated) {
+        synchronized (stages) {
+            stages.computeIfAbsent(name, k -> new Totals()).add(nanos, rows, allocated);
+        }
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 where the JVM cannot tell. Only
+    // called by enabled stages, so allocation tracking is switched on JVM-wide from the first one.
+    static long allocatedBytes() {
+        var threads = Threads.BEAN;
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    // Initialized on first use only.
+    private static final class Threads {
+        static final com.sun.management.ThreadMXBean BEAN = threads();
+
+        private static com.sun.management.ThreadMXBean threads() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+                    && t.isThreadAllocatedMemorySupported()) {
+                t.setThreadAllocatedMemoryEnabled(true);
+                return t;
+            }
+            return null;
+        }
+    }
+
+    /*
+     * {"stages":[{"name":..,"calls":..,"millis":..,"rows":..,"rowsPerSecond":..,"allocatedBytes":..}],
+     *  "peaks":{"employees":..}}
+     * Allocation counts the threads that opened and closed each stage, not pool workers it forked.
+     */
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{\"stages\":[");
+        synchronized (stages) {
+            boolean first = true;
+            for (var e : stages.entrySet()) {
+                Totals t = e.getValue();
+                if (!first) sb.append(',');
+                first = false;
+                string(sb.append("{\"name\":"), e.getKey())
+                        .append(",\"calls\":").append(t.calls)
+                        .append(",\"millis\":").append(String.format(Locale.ROOT, "%.3f", t.nanos / 1e6))
+                        .append(",\"rows\":").append(t.rows)
+                        .append(",\"rowsPerSecond\":").append(t.rows == 0 || t.nanos == 0 ? 0 : Math.round(t.rows * 1e9 / t.nanos))
+                        .append(",\"allocatedBytes\":").append(t.allocated)
+                        .append('}');
+            }
+        }
+        sb.append("],\"peaks\":{");
+        boolean first = true;
+        for (var e : new TreeMap<>(peaks).entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            string(sb, e.getKey()).append(':').append(e.getValue());
+        }
+        return sb.append("}}").toString();
+    }
+
+    public static void writeJson(Path file) throws IOException {
+        Files.writeString(file, toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\');
+            if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static final class Totals {
+        long calls;
+        long nanos;
+        long rows;
+        long allocated;
+
+        void add(long nanos, long rows, long allocated) {
+            calls++;
+            this.nanos += nanos;
+            this.rows += rows;
+            if (allocated > 0) this.allocated += allocated;
+        }
+    }
+}
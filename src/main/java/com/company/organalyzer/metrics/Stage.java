@@ -0,0 +1,52 @@
+package com.company.organalyzer.metrics;
+
+// One timed run of a pipeline stage; close() records it. Not shared between threads.
+public class Stage implements AutoCloseable {
+
+    static final Stage NOOP = new Stage() {
+        @Override public Stage rows(long rows) { return this; }
+        @Override public void close() {}
+    };
+
+    private final String name;
+    private final long start;
+    private final long startAllocated;
+    private final StageEvent event;
+    private long rows;
+
+    private Stage() {
+        name = null;
+        start = 0;
+        startAllocated = 0;
+        event = null;
+    }
+
+    Stage(String name) {
+        this.name = name;
+        this.event = new StageEvent();
+        event.begin();
+        this.startAllocated = Metrics.allocatedBytes();
+        this.start = System.nanoTime();
+    }
+
+    // Rows handled by this stage, for throughput; adds up over calls.
+    public Stage rows(long rows) {
+        this.rows += rows;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        long nanos = System.nanoTime() - start;
+        long allocated = startAllocated < 0 ? -1 : Metrics.allocatedBytes() - startAllocated;
+        Metrics.record(name, nanos, rows, allocated);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = name;
+            event.rows = rows;
+            event.allocatedBytes = allocated;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.organalyzer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("organalyzer.Stage")
+@Label("Pipeline Stage")
+@Category("Org Analyzer")
+class StageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -1,10 +1,15 @@
 package com.company.organalyzer.model;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class AnalysisReport {
 
+    // Levels below the CEO allowed before a reporting line is too long, unless the analysis says otherwise.
+    public static final int DEFAULT_MAX_DEPTH = 4;
+
     private final Map<Employee, Double> underpaidManagers;
     private final Map<Employee, Double> overpaidManagers;
     private final Map<Employee, Integer> longReportingLines;
@@ -12,9 +17,26 @@ public class AnalysisReport {
     private final List<String> invalidManagerRefs;
     private final List<String> duplicateIds;
     private final List<String> circularRefs;
+    private final List<String> cutOffEmployees;
 
     private final int totalProcessed;
     private final int invalidEntries;
+    private final int maxDepth;
+
+    public AnalysisReport(
+            Map<Employee, Double> underpaidManagers,
+            Map<Employee, Double> overpaidManagers,
+            Map<Employee, Integer> longReportingLines,
+            List<String> invalidManagerRefs,
+            List<String> duplicateIds,
+            List<String> circularRefs,
+            int totalProcessed,
+            int invalidEntries
+    ) {
+        this(underpaidManagers, overpaidManagers, longReportingLines,
+                invalidManagerRefs, duplicateIds, circularRefs, List.of(),
+                totalProcessed, invalidEntries);
+    }
 
     public AnalysisReport(
             Map<Employee, Double> underpaidManagers,
@@ -23,21 +45,45 @@ public class AnalysisReport {
             List<String> invalidManagerRefs,
             List<String> duplicateIds,
             List<String> circularRefs,
+            List<String> cutOffEmployees,
             int totalProcessed,
             int invalidEntries
     ) {
-        this.underpaidManagers = Map.copyOf(underpaidManagers);
-        this.overpaidManagers = Map.copyOf(overpaidManagers);
-        this.longReportingLines = Map.copyOf(longReportingLines);
+        this(underpaidManagers, overpaidManagers, longReportingLines,
+                invalidManagerRefs, duplicateIds, circularRefs, cutOffEmployees,
+                totalProcessed, invalidEntries, DEFAULT_MAX_DEPTH);
+    }
+
+    public AnalysisReport(
+            Map<Employee, Double> underpaidManagers,
+            Map<Employee, Double> overpaidManagers,
+            Map<Employee, Integer> longReportingLines,
+            List<String> invalidManagerRefs,
+            List<String> duplicateIds,
+            List<String> circularRefs,
+            List<String> cutOffEmployees,
+            int totalProcessed,
+            int invalidEntries,
+            int maxDepth
+    ) {
+        this.underpaidManagers = orderedCopy(underpaidManagers);
+        this.overpaidManagers = orderedCopy(overpaidManagers);
+        this.longReportingLines = orderedCopy(longReportingLines);
 
         this.invalidManagerRefs = List.copyOf(invalidManagerRefs);
         this.duplicateIds = List.copyOf(duplicateIds);
         this.circularRefs = List.copyOf(circularRefs);
+        this.cutOffEmployees = List.copyOf(cutOffEmployees);
 
         this.totalProcessed = totalProcessed;
         this.invalidEntries = invalidEntries;
+        this.maxDepth = maxDepth;
     }
 
+    // Keeps the analyzer's order so the rendered report is deterministic.
+    private static <V> Map<Employee, V> orderedCopy(Map<Employee, V> map) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+    }
 
     public Map<Employee, Double> getUnderpaidManagers() { return underpaidManagers; }
     public Map<Employee, Double> getOverpaidManagers() { return overpaidManagers; }
@@ -46,9 +92,11 @@ public class AnalysisReport {
     public List<String> getInvalidManagerReferences() { return invalidManagerRefs; }
     public List<String> getDuplicateIds() { return duplicateIds; }
     public List<String> getCircularReferences() { return circularRefs; }
+    public List<String> getCutOffEmployees() { return cutOffEmployees; }
 
     public int getTotalProcessed() { return totalProcessed; }
     public int getInvalidEntries() { return invalidEntries; }
+    public int getMaxDepth() { return maxDepth; }
 
 
 
@@ -77,7 +125,7 @@ public class AnalysisReport {
         }
 
         if (!longReportingLines.isEmpty()) {
-            sb.append("EMPLOYEES WITH TOO LONG REPORTING LINES (>4 levels):\n");
+            sb.append("EMPLOYEES WITH TOO LONG REPORTING LINES (>").append(maxDepth).append(" levels):\n");
             longReportingLines.forEach((e, extra) -> sb.append(
                     " • " + e + " → " + extra + " level(s) too deep\n"
             ));
@@ -102,6 +150,12 @@ public class AnalysisReport {
             sb.append("\n");
         }
 
+        if (!cutOffEmployees.isEmpty()) {
+            sb.append("EMPLOYEES CUT OFF BY CIRCULAR REFERENCES:\n");
+            cutOffEmployees.forEach(s -> sb.append(" • ").append(s).append("\n"));
+            sb.append("\n");
+        }
+
         sb.append("FILE PROCESS SUMMARY:\n");
         sb.append(" • Total employees processed: ").append(totalProcessed).append("\n");
         sb.append(" • Invalid entries: ").append(invalidEntries).append("\n");
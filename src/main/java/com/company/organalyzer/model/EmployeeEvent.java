@@ -0,0 +1,20 @@
+package com.company.organalyzer.model;
+
+public sealed interface EmployeeEvent {
+
+    long id();
+
+    record Added(Employee employee) implements EmployeeEvent {
+        public long id() { return employee.id(); }
+    }
+
+    record Removed(long id) implements EmployeeEvent {}
+
+    record SalaryChanged(long id, double salary) implements EmployeeEvent {
+        public SalaryChanged {
+            if (salary <= 0) throw new IllegalArgumentException("Salary must be positive: " + salary);
+        }
+    }
+
+    record ManagerChanged(long id, Long managerId) implements EmployeeEvent {}
+}
@@ -0,0 +1,75 @@
+package com.company.organalyzer.model;
+
+import java.util.List;
+
+/*
+ * One entry of an analysis, as data rather than report text: a flagged employee with the
+ * amount past the limit, or a data issue. message() is the line the text report prints for
+ * issues, and the repositories and analyzers build their issue lists from it.
+ */
+public sealed interface Finding {
+
+    // Stable identifier for machine-readable output.
+    String type();
+
+    record Underpaid(Employee employee, double shortfall) implements Finding {
+        public String type() { return "underpaid"; }
+    }
+
+    record Overpaid(Employee employee, double excess) implements Finding {
+        public String type() { return "overpaid"; }
+    }
+
+    record TooDeep(Employee employee, int extraLevels) implements Finding {
+        public String type() { return "too_deep"; }
+    }
+
+    // A result of a rule registered beyond the standard ones; its type is the rule's name.
+    record RuleFinding(String rule, Employee employee, double amount) implements Finding {
+        public String type() { return rule; }
+    }
+
+    record InvalidManager(long employeeId, long managerId) implements Finding {
+        public String type() { return "invalid_manager"; }
+
+        public String message() {
+            return "Employee " + employeeId + " references missing manager ID: " + managerId;
+        }
+    }
+
+    record DuplicateId(long id) implements Finding {
+        public String type() { return "duplicate_id"; }
+
+        public String message() {
+            return "Duplicate employee ID: " + id;
+        }
+    }
+
+    // The employee ids around the cycle, starting from the one listed first in the file.
+    record CircularChain(List<Long> ids) implements Finding {
+        public CircularChain {
+            ids = List.copyOf(ids);
+        }
+
+        public String type() { return "circular_chain"; }
+
+        public String message() {
+            return "Circular reporting chain detected: " + arrows(ids);
+        }
+    }
+
+    record CutOff(long employeeId, CircularChain chain) implements Finding {
+        public String type() { return "cut_off"; }
+
+        public String message() {
+            return "Employee " + employeeId + " is cut off from the CEO by circular chain " + arrows(chain.ids());
+        }
+    }
+
+    // "15 → 16 → 17 → 15"
+    private static String arrows(List<Long> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (long id : ids) sb.append(id).append(" → ");
+        return sb.append(ids.get(0)).toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.company.organalyzer.model;
+
+import java.io.IOException;
+
+// Where streamed findings go, one at a time, e.g. an encoder writing them out as they arrive.
+@FunctionalInterface
+public interface FindingSink {
+
+    void accept(Finding finding) throws IOException;
+}
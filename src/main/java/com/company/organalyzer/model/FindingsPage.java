@@ -0,0 +1,17 @@
+package com.company.organalyzer.model;
+
+import java.util.List;
+
+// One page of a rule's flagged employees, worst first; nextCursor is null on the last page.
+public record FindingsPage(String rule, List<Item> items, long total, String nextCursor) {
+
+    public record Item(Employee employee, double amount) {}
+
+    public FindingsPage {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
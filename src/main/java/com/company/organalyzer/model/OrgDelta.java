@@ -0,0 +1,120 @@
+package com.company.organalyzer.model;
+
+import java.util.List;
+
+/*
+ * What changed between two exports of the same org. Records are matched by employee id:
+ * added in the new export's order, removed in the old one's, changes in the new one's.
+ * Findings are matched by category and employee id; issues (invalid references, duplicates,
+ * cycles) by their text.
+ */
+public record OrgDelta(List<Employee> added,
+                       List<Employee> removed,
+                       List<Change> salaryChanges,
+                       List<Change> managerMoves,
+                       List<Finding> appeared,
+                       List<Finding> cleared,
+                       List<String> issuesAppeared,
+                       List<String> issuesCleared) {
+
+    public static final String UNDERPAID = "underpaid";
+    public static final String OVERPAID = "overpaid";
+    public static final String DEEP = "deep";
+
+    // The same employee in both exports.
+    public record Change(Employee before, Employee after) {}
+
+    // A flagged employee as of the export it is flagged in: the new one when it appeared.
+    public record Finding(String category, Employee employee, double amount) {}
+
+    public OrgDelta {
+        added = List.copyOf(added);
+        removed = List.copyOf(removed);
+        salaryChanges = List.copyOf(salaryChanges);
+        managerMoves = List.copyOf(managerMoves);
+        appeared = List.copyOf(appeared);
+        cleared = List.copyOf(cleared);
+        issuesAppeared = List.copyOf(issuesAppeared);
+        issuesCleared = List.copyOf(issuesCleared);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && salaryChanges.isEmpty() && managerMoves.isEmpty()
+                && appeared.isEmpty() && cleared.isEmpty() && issuesAppeared.isEmpty() && issuesCleared.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("═".repeat(80)).append("\n");
+        sb.append("               COMPANY ORGANIZATION CHANGES\n");
+        sb.append("═".repeat(80)).append("\n\n");
+
+        if (!added.isEmpty()) {
+            sb.append("NEW EMPLOYEES:\n");
+            added.forEach(e -> sb.append(" • ").append(e).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!removed.isEmpty()) {
+            sb.append("REMOVED EMPLOYEES:\n");
+            removed.forEach(e -> sb.append(" • ").append(e).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!salaryChanges.isEmpty()) {
+            sb.append("SALARY CHANGES:\n");
+            salaryChanges.forEach(c -> sb.append(String.format(" • %d: %s %s $%.0f → $%.0f",
+                    c.after().id(), c.after().firstName(), c.after().lastName(),
+                    c.before().salary(), c.after().salary())).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!managerMoves.isEmpty()) {
+            sb.append("MANAGER CHANGES:\n");
+            managerMoves.forEach(c -> sb.append(" • ").append(c.after().id()).append(": ")
+                    .append(c.after().firstName()).append(" ").append(c.after().lastName()).append(" ")
+                    .append(manager(c.before())).append(" → ").append(manager(c.after())).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!appeared.isEmpty()) {
+            sb.append("NEW VIOLATIONS:\n");
+            appeared.forEach(f -> sb.append(" • ").append(f.category()).append(": ").append(f.employee()).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!cleared.isEmpty()) {
+            sb.append("CLEARED VIOLATIONS:\n");
+            cleared.forEach(f -> sb.append(" • ").append(f.category()).append(": ").append(f.employee()).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!issuesAppeared.isEmpty()) {
+            sb.append("NEW DATA ISSUES:\n");
+            issuesAppeared.forEach(s -> sb.append(" • ").append(s).append("\n"));
+            sb.append("\n");
+        }
+
+        if (!issuesCleared.isEmpty()) {
+            sb.append("RESOLVED DATA ISSUES:\n");
+            issuesCleared.forEach(s -> sb.append(" • ").append(s).append("\n"));
+            sb.append("\n");
+        }
+
+        sb.append("SUMMARY:\n");
+        sb.append(" • Added: ").append(added.size()).append(", removed: ").append(removed.size()).append("\n");
+        sb.append(" • Salary changes: ").append(salaryChanges.size())
+                .append(", manager changes: ").append(managerMoves.size()).append("\n");
+        sb.append(" • Violations appeared: ").append(appeared.size())
+                .append(", cleared: ").append(cleared.size()).append("\n");
+
+        sb.append("\n").append("═".repeat(80)).append("\n");
+        return sb.toString();
+    }
+
+    private static String manager(Employee e) {
+        return e.managerId() == null ? "CEO" : "reports to " + e.managerId();
+    }
+}
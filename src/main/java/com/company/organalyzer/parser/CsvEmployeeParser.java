@@ -1,49 +1,196 @@
 package com.company.organalyzer.parser;
 
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
 import com.company.organalyzer.model.Employee;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 public class CsvEmployeeParser {
 
+    private static final long MIN_PARALLEL_CHUNK = 4L << 20;
+
     public record ParseResult(List<Employee> employees, List<String> errors) {}
 
-    public static ParseResult parse(InputStream in) throws IOException {
+    interface LineErrors {
+        void add(int lineNo, String message);
+    }
 
+    public static ParseResult parse(InputStream in) throws IOException {
         List<Employee> employees = new ArrayList<>();
+        List<String> errors = parse(in, employees::add);
+        return new ParseResult(employees, errors);
+    }
+
+    public static List<String> parse(InputStream in, Consumer<Employee> sink) throws IOException {
+        return parse(in, sink, new NameDictionary());
+    }
+
+    // Names are interned through the given dictionary, which may be shared by later parses.
+    public static List<String> parse(InputStream in, Consumer<Employee> sink, NameDictionary names) throws IOException {
+
         List<String> errors = new ArrayList<>();
 
         BufferedReader br = new BufferedReader(new InputStreamReader(in));
         String line;
         int lineNo = 0;
         boolean header = true;
+        LineErrors errorSink = (n, msg) -> errors.add("Line " + n + ": " + msg);
 
-        while ((line = br.readLine()) != null) {
-            lineNo++;
-            if (header) {
-                header = false;
-                continue;
-            }
-            if (line.isBlank()) continue;
-
-            try {
-                String[] p = line.split(",", -1);
-                long id = Long.parseLong(p[0].trim());
-                String first = p[1].trim();
-                String last = p[2].trim();
-                double salary = Double.parseDouble(p[3].trim());
-                Long managerId = p.length > 4 && !p[4].isBlank()
-                        ? Long.parseLong(p[4].trim())
-                        : null;
-
-                employees.add(new Employee(id, first, last, salary, managerId));
-
-            } catch (Exception ex) {
-                errors.add("Line " + lineNo + ": " + ex.getMessage());
+        try (Stage stage = Metrics.stage("parse")) {
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                if (line.isBlank()) continue;
+
+                parseLine(line, lineNo, sink, errorSink, names);
             }
+            stage.rows(Math.max(0, lineNo - 1));  // data lines, not the header
         }
 
+        Metrics.peak("parseErrors", errors.size());
+        return errors;
+    }
+
+    public static ParseResult parse(Path file) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        List<String> errors = parse(file, employees::add);
         return new ParseResult(employees, errors);
     }
+
+    public static List<String> parse(Path file, Consumer<Employee> sink) throws IOException {
+        return parse(file, sink, new NameDictionary());
+    }
+
+    public static List<String> parse(Path file, Consumer<Employee> sink, NameDictionary names) throws IOException {
+
+        List<String> errors = new ArrayList<>();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+             Stage stage = Metrics.stage("parse")) {
+            long[] bounds = MappedCsvReader.chunkBounds(ch, MappedCsvReader.MAX_CHUNK);
+            int lineNo = 0;
+            LineErrors errorSink = (n, msg) -> errors.add("Line " + n + ": " + msg);
+
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                var reader = new MappedCsvReader(ch, bounds[i], bounds[i + 1], lineNo, i == 0, names);
+                lineNo = reader.parse(sink, errorSink);
+            }
+            stage.rows(Math.max(0, lineNo - 1));
+        }
+
+        Metrics.peak("parseErrors", errors.size());
+        return errors;
+    }
+
+    public static ParseResult parseParallel(Path file) throws IOException {
+        return parseParallel(file, ForkJoinPool.commonPool());
+    }
+
+    public static ParseResult parseParallel(Path file, ForkJoinPool pool) throws IOException {
+        long size = Files.size(file);
+        long chunkSize = Math.max(MIN_PARALLEL_CHUNK,
+                Math.min(MappedCsvReader.MAX_CHUNK, size / (pool.getParallelism() * 4L)));
+        return parseParallel(file, pool, chunkSize);
+    }
+
+    static ParseResult parseParallel(Path file, ForkJoinPool pool, long chunkSize) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+             Stage stage = Metrics.stage("parse")) {
+            long[] bounds = MappedCsvReader.chunkBounds(ch, chunkSize);
+            NameDictionary names = new NameDictionary();
+
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                boolean first = i == 0;
+                NameDictionary chunkNames = names.fork();
+                tasks.add(() -> Chunk.parse(ch, start, end, first, chunkNames));
+            }
+
+            List<Employee> employees = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            int lineOffset = 0;
+
+            for (Future<Chunk> f : pool.invokeAll(tasks)) {
+                Chunk c = join(f);
+                employees.addAll(c.employees);
+                for (int i = 0; i < c.errorLines.size(); i++) {
+                    errors.add("Line " + (lineOffset + c.errorLines.get(i)) + ": " + c.errorMessages.get(i));
+                }
+                lineOffset += c.lines;
+            }
+
+            stage.rows(Math.max(0, lineOffset - 1));
+            Metrics.peak("parseErrors", errors.size());
+            return new ParseResult(employees, errors);
+        }
+    }
+
+    // Line numbers are chunk-local until the chunks are stitched back together in file order.
+    private static final class Chunk {
+        final List<Employee> employees = new ArrayList<>();
+        final List<Integer> errorLines = new ArrayList<>();
+        final List<String> errorMessages = new ArrayList<>();
+        int lines;
+
+        static Chunk parse(FileChannel ch, long start, long end, boolean header, NameDictionary names)
+                throws IOException {
+            Chunk c = new Chunk();
+            c.lines = new MappedCsvReader(ch, start, end, 0, header, names).parse(c.employees::add, (n, msg) -> {
+                c.errorLines.add(n);
+                c.errorMessages.add(msg);
+            });
+            return c;
+        }
+    }
+
+    private static Chunk join(Future<Chunk> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parallel parse interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    static void parseLine(String line, int lineNo, Consumer<Employee> out, LineErrors errors, NameDictionary names) {
+        Employee employee;
+        try {
+            String[] p = line.split(",", -1);
+            long id = Long.parseLong(p[0].trim());
+            String first = names.intern(p[1].trim());
+            String last = names.intern(p[2].trim());
+            double salary = Double.parseDouble(p[3].trim());
+            Long managerId = p.length > 4 && !p[4].isBlank()
+                    ? Long.parseLong(p[4].trim())
+                    : null;
+
+            employee = new Employee(id, first, last, salary, managerId);
+
+        } catch (Exception ex) {
+            errors.add(lineNo, ex.getMessage());
+            return;
+        }
+        out.accept(employee);
+    }
 }
@@ -0,0 +1,280 @@
+package com.company.organalyzer.parser;
+
+import com.company.organalyzer.model.Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/*
+ * Byte-level reader for one newline-aligned region of a memory-mapped CSV file.
+ *
+ * Ids, manager ids and salaries in their plain decimal form are parsed straight
+ * from the mapped bytes. Any line the fast path cannot handle exactly (exponents,
+ * too many digits, missing columns, non-ASCII padding, ...) is decoded and handed
+ * to CsvEmployeeParser.parseLine, so values and error messages always match the
+ * InputStream path. Names are interned from the bytes through a NameDictionary.
+ */
+final class MappedCsvReader {
+
+    static final long MAX_CHUNK = 256L << 20;
+
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_DOUBLE_DIGITS = 15;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7,
+            1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final MappedByteBuffer buf;
+    private final int limit;
+    private final NameDictionary names;
+    private int lineNo;
+    private boolean header;
+
+    private final int[] commas = new int[5];
+    private byte[] scratch = new byte[128];
+    private long longValue;
+    private double doubleValue;
+
+    MappedCsvReader(FileChannel ch, long start, long end, int lineNo, boolean header, NameDictionary names)
+            throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("CSV region at offset " + start + " has no line break within 2 GB");
+        }
+        this.buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        this.limit = (int) (end - start);
+        this.lineNo = lineNo;
+        this.header = header;
+        this.names = names;
+    }
+
+    int parse(Consumer<Employee> out, CsvEmployeeParser.LineErrors errors) {
+        int pos = 0;
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < limit) {
+                byte b = buf.get(eol);
+                if (b == '\n' || b == '\r') break;
+                eol++;
+            }
+
+            lineNo++;
+            if (header) {
+                header = false;
+            } else {
+                parseLine(pos, eol, out, errors);
+            }
+
+            if (eol + 1 < limit && buf.get(eol) == '\r' && buf.get(eol + 1) == '\n') eol++;
+            pos = eol + 1;
+        }
+        return lineNo;
+    }
+
+    private void parseLine(int from, int to, Consumer<Employee> out, CsvEmployeeParser.LineErrors errors) {
+        int commaCount = 0;
+        boolean content = false;
+        boolean nonAscii = false;
+
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == ',' && commaCount < commas.length) commas[commaCount++] = i;
+            if (b < 0) nonAscii = true;
+            else if (!isWhitespace(b)) content = true;
+        }
+
+        if (!content) {
+            if (nonAscii) fallback(from, to, out, errors);
+            return;
+        }
+        if (commaCount < 3) {
+            fallback(from, to, out, errors);
+            return;
+        }
+
+        int salaryEnd = commaCount > 3 ? commas[3] : to;
+        int managerEnd = commaCount > 4 ? commas[4] : to;
+
+        if (!parseLong(from, commas[0])) {
+            fallback(from, to, out, errors);
+            return;
+        }
+        long id = longValue;
+
+        if (!parseDouble(commas[2] + 1, salaryEnd)) {
+            fallback(from, to, out, errors);
+            return;
+        }
+        double salary = doubleValue;
+
+        Long managerId = null;
+        if (commaCount > 3) {
+            int s = commas[3] + 1;
+            if (!isBlank(s, managerEnd)) {
+                if (!parseLong(s, managerEnd)) {
+                    fallback(from, to, out, errors);
+                    return;
+                }
+                managerId = longValue;
+            }
+        }
+
+        String first = name(commas[0] + 1, commas[1]);
+        String last = name(commas[1] + 1, commas[2]);
+
+        Employee employee;
+        try {
+            employee = new Employee(id, first, last, salary, managerId);
+        } catch (IllegalArgumentException ex) {
+            errors.add(lineNo, ex.getMessage());
+            return;
+        }
+        out.accept(employee);
+    }
+
+    private void fallback(int from, int to, Consumer<Employee> out, CsvEmployeeParser.LineErrors errors) {
+        String line = decode(from, to);
+        if (line.isBlank()) return;
+        CsvEmployeeParser.parseLine(line, lineNo, out, errors, names);
+    }
+
+    private boolean parseLong(int from, int to) {
+        int s = trimStart(from, to);
+        int e = trimEnd(s, to);
+        if (s == e) return false;
+
+        boolean negative = false;
+        byte b = buf.get(s);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            s++;
+        }
+        int digits = e - s;
+        if (digits == 0 || digits > MAX_LONG_DIGITS) return false;
+
+        long v = 0;
+        for (int i = s; i < e; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return false;
+            v = v * 10 + d;
+        }
+        longValue = negative ? -v : v;
+        return true;
+    }
+
+    // Only "[sign]digits[.digits]" with at most 15 significant digits: the mantissa and
+    // the power of ten are both exact doubles, so one division rounds exactly like parseDouble.
+    private boolean parseDouble(int from, int to) {
+        int s = trimStart(from, to);
+        int e = trimEnd(s, to);
+        if (s == e) return false;
+
+        boolean negative = false;
+        byte b = buf.get(s);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            s++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (int i = s; i < e; i++) {
+            byte c = buf.get(i);
+            if (c == '.') {
+                if (fraction >= 0 || digits == 0) return false;
+                fraction = 0;
+                continue;
+            }
+            int d = c - '0';
+            if (d < 0 || d > 9) return false;
+            if (++digits > MAX_DOUBLE_DIGITS) return false;
+            mantissa = mantissa * 10 + d;
+            if (fraction >= 0) fraction++;
+        }
+        if (digits == 0 || fraction == 0) return false;
+
+        double v = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+        doubleValue = negative ? -v : v;
+        return true;
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(buf.get(i))) return false;
+        }
+        return true;
+    }
+
+    // String.trim() semantics: strip every char <= U+0020; UTF-8 continuation bytes are never stripped.
+    private int trimStart(int from, int to) {
+        while (from < to && (buf.get(from) & 0xff) <= ' ') from++;
+        return from;
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && (buf.get(to - 1) & 0xff) <= ' ') to--;
+        return to;
+    }
+
+    private String name(int from, int to) {
+        int s = trimStart(from, to);
+        return names.intern(buf, s, trimEnd(s, to));
+    }
+
+    private String decode(int from, int to) {
+        int len = to - from;
+        if (len == 0) return "";
+        if (scratch.length < len) scratch = Arrays.copyOf(scratch, Math.max(len, scratch.length * 2));
+        buf.get(from, scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    // Character.isWhitespace restricted to ASCII
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+
+    // Region boundaries, each just past a '\n' (or at EOF), roughly chunkSize bytes apart.
+    static long[] chunkBounds(FileChannel ch, long chunkSize) throws IOException {
+        long size = ch.size();
+        long[] bounds = new long[16];
+        int n = 0;
+        bounds[n++] = 0;
+
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long pos = chunkSize;
+        while (pos < size) {
+            long next = nextLineStart(ch, pos - 1, size, probe);
+            if (next >= size) break;
+            if (n == bounds.length) bounds = Arrays.copyOf(bounds, n * 2);
+            bounds[n++] = next;
+            pos = next + chunkSize;
+        }
+
+        if (size > 0) {
+            if (n == bounds.length) bounds = Arrays.copyOf(bounds, n + 1);
+            bounds[n++] = size;
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+
+    private static long nextLineStart(FileChannel ch, long from, long size, ByteBuffer probe) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            probe.clear();
+            int read = ch.read(probe, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,126 @@
+package com.company.organalyzer.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Hands out one shared String instance per distinct first or last name, so a large org
+ * keeps a few thousand name strings instead of two per employee.
+ *
+ * A dictionary is meant for one thread. Parallel parsers give each worker a fork(); forks
+ * keep their own lock-free lookup table but agree on the same canonical instances. The
+ * mapped reader looks names up straight from the file bytes, so a name seen before costs
+ * no allocation at all. After MAX_ENTRIES distinct names a dictionary stops growing and
+ * just returns the decoded name.
+ */
+public final class NameDictionary {
+
+    static final int MAX_ENTRIES = 1 << 20;
+
+    private final ConcurrentMap<String, String> canonical;
+    private final int maxEntries;
+
+    private String[] names = new String[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+    private byte[] scratch = new byte[64];
+
+    public NameDictionary() {
+        this(MAX_ENTRIES);
+    }
+
+    // Stops growing after maxEntries distinct names, e.g. to keep a memory budget.
+    public NameDictionary(int maxEntries) {
+        this(new ConcurrentHashMap<>(), Math.min(maxEntries, MAX_ENTRIES));
+    }
+
+    private NameDictionary(ConcurrentMap<String, String> canonical, int maxEntries) {
+        if (maxEntries < 0) throw new IllegalArgumentException("Entry limit must not be negative: " + maxEntries);
+        this.canonical = canonical;
+        this.maxEntries = maxEntries;
+    }
+
+    // A dictionary for another thread that returns the same instances as this one.
+    public NameDictionary fork() {
+        return new NameDictionary(canonical, maxEntries);
+    }
+
+    public String intern(String name) {
+        String shared = canonical.get(name);
+        if (shared != null) return shared;
+        if (canonical.size() >= maxEntries) return name;
+        shared = canonical.putIfAbsent(name, name);
+        return shared == null ? name : shared;
+    }
+
+    // Distinct names handed out so far, across all forks.
+    public int size() {
+        return canonical.size();
+    }
+
+    // The UTF-8 name in buf[from, to), without decoding it when it was seen before.
+    String intern(ByteBuffer buf, int from, int to) {
+        int h = 1;
+        boolean ascii = true;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            h = 31 * h + b;
+            if (b < 0) ascii = false;
+        }
+        h ^= h >>> 16;
+
+        int mask = names.length - 1;
+        for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (name == null) break;
+            if (hashes[slot] == h && sameBytes(name, buf, from, to)) return name;
+        }
+
+        String name = intern(decode(buf, from, to));
+        // only ASCII names can be matched byte for byte; others always go through intern(String)
+        if (ascii && size < maxEntries) add(name, h);
+        return name;
+    }
+
+    private static boolean sameBytes(String asciiName, ByteBuffer buf, int from, int to) {
+        if (asciiName.length() != to - from) return false;
+        for (int i = from; i < to; i++) {
+            if (asciiName.charAt(i - from) != buf.get(i)) return false;
+        }
+        return true;
+    }
+
+    private void add(String name, int h) {
+        if (++size * 2 > names.length) grow();
+        int mask = names.length - 1;
+        int slot = h & mask;
+        while (names[slot] != null) slot = (slot + 1) & mask;
+        names[slot] = name;
+        hashes[slot] = h;
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        names = new String[oldNames.length * 2];
+        hashes = new int[oldNames.length * 2];
+        int mask = names.length - 1;
+        for (int k = 0; k < oldNames.length; k++) {
+            if (oldNames[k] == null) continue;
+            int slot = oldHashes[k] & mask;
+            while (names[slot] != null) slot = (slot + 1) & mask;
+            names[slot] = oldNames[k];
+            hashes[slot] = oldHashes[k];
+        }
+    }
+
+    private String decode(ByteBuffer buf, int from, int to) {
+        int len = to - from;
+        if (len == 0) return "";
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+        buf.get(from, scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,119 @@
+package com.company.organalyzer.report;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.model.FindingSink;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/*
+ * Writes findings as CSV rows, one per finding, straight to the writer as they arrive, in
+ * constant memory. Every row has the same columns; those a finding type has no value for
+ * are empty. A chain lists its employee ids separated by spaces.
+ */
+public final class CsvEncoder implements FindingSink, Flushable {
+
+    public static final String HEADER = "type,id,first_name,last_name,salary,manager_id,amount,chain";
+
+    private final Writer out;
+
+    public CsvEncoder(OutputStream out) throws IOException {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public CsvEncoder(Writer out) throws IOException {
+        this.out = out instanceof BufferedWriter || out instanceof StringWriter
+                ? out
+                : new BufferedWriter(out, 1 << 16);
+        this.out.write(HEADER);
+        this.out.write('\n');
+    }
+
+    @Override
+    public void accept(Finding f) throws IOException {
+        field(f.type());
+
+        if (f instanceof Finding.Underpaid u) {
+            employee(u.employee());
+            out.write(Double.toString(u.shortfall()));
+            out.write(",\n");
+        } else if (f instanceof Finding.Overpaid o) {
+            employee(o.employee());
+            out.write(Double.toString(o.excess()));
+            out.write(",\n");
+        } else if (f instanceof Finding.TooDeep d) {
+            employee(d.employee());
+            out.write(Integer.toString(d.extraLevels()));
+            out.write(",\n");
+        } else if (f instanceof Finding.RuleFinding r) {
+            employee(r.employee());
+            out.write(Double.toString(r.amount()));
+            out.write(",\n");
+        } else if (f instanceof Finding.InvalidManager m) {
+            out.write(',');
+            out.write(Long.toString(m.employeeId()));
+            out.write(",,,,");
+            out.write(Long.toString(m.managerId()));
+            out.write(",,\n");
+        } else if (f instanceof Finding.DuplicateId d) {
+            out.write(',');
+            out.write(Long.toString(d.id()));
+            out.write(",,,,,,\n");
+        } else if (f instanceof Finding.CircularChain c) {
+            out.write(",,,,,,,");
+            chain(c.ids());
+            out.write('\n');
+        } else if (f instanceof Finding.CutOff c) {
+            out.write(',');
+            out.write(Long.toString(c.employeeId()));
+            out.write(",,,,,,");
+            chain(c.chain().ids());
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // id through manager_id, then the separator before amount
+    private void employee(Employee e) throws IOException {
+        out.write(',');
+        out.write(Long.toString(e.id()));
+        out.write(',');
+        field(e.firstName());
+        out.write(',');
+        field(e.lastName());
+        out.write(',');
+        out.write(Double.toString(e.salary()));
+        out.write(',');
+        if (e.managerId() != null) out.write(Long.toString(e.managerId()));
+        out.write(',');
+    }
+
+    private void chain(List<Long> ids) throws IOException {
+        for (int k = 0; k < ids.size(); k++) {
+            if (k > 0) out.write(' ');
+            out.write(Long.toString(ids.get(k)));
+        }
+    }
+
+    // Quoted only when it has to be, with quotes doubled.
+    private void field(String s) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,133 @@
+package com.company.organalyzer.report;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.model.FindingSink;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/*
+ * Writes findings as JSON Lines, one object per finding, straight to the writer as they
+ * arrive; nothing is kept once a line is written, so any number of findings streams in
+ * constant memory.
+ *
+ *   {"type":"underpaid","employee":{"id":2,...,"managerId":1},"amount":1500.0}
+ *   {"type":"too_deep","employee":{...},"amount":2}
+ *   {"type":"<custom rule name>","employee":{...},"amount":0.5}
+ *   {"type":"invalid_manager","id":19,"managerId":999}
+ *   {"type":"duplicate_id","id":20}
+ *   {"type":"circular_chain","chain":[15,16,17]}
+ *   {"type":"cut_off","id":18,"chain":[15,16,17]}
+ */
+public final class JsonLinesEncoder implements FindingSink, Flushable {
+
+    private final Writer out;
+
+    public JsonLinesEncoder(OutputStream out) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public JsonLinesEncoder(Writer out) {
+        this.out = out instanceof BufferedWriter || out instanceof StringWriter
+                ? out
+                : new BufferedWriter(out, 1 << 16);
+    }
+
+    @Override
+    public void accept(Finding f) throws IOException {
+        out.write("{\"type\":");
+        string(f.type());
+
+        if (f instanceof Finding.Underpaid u) {
+            employee(u.employee());
+            amount(u.shortfall());
+        } else if (f instanceof Finding.Overpaid o) {
+            employee(o.employee());
+            amount(o.excess());
+        } else if (f instanceof Finding.TooDeep d) {
+            employee(d.employee());
+            out.write(",\"amount\":");
+            out.write(Integer.toString(d.extraLevels()));
+        } else if (f instanceof Finding.RuleFinding r) {
+            employee(r.employee());
+            amount(r.amount());
+        } else if (f instanceof Finding.InvalidManager m) {
+            out.write(",\"id\":");
+            out.write(Long.toString(m.employeeId()));
+            out.write(",\"managerId\":");
+            out.write(Long.toString(m.managerId()));
+        } else if (f instanceof Finding.DuplicateId d) {
+            out.write(",\"id\":");
+            out.write(Long.toString(d.id()));
+        } else if (f instanceof Finding.CircularChain c) {
+            chain(c.ids());
+        } else if (f instanceof Finding.CutOff c) {
+            out.write(",\"id\":");
+            out.write(Long.toString(c.employeeId()));
+            chain(c.chain().ids());
+        }
+        out.write("}\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void employee(Employee e) throws IOException {
+        out.write(",\"employee\":{\"id\":");
+        out.write(Long.toString(e.id()));
+        out.write(",\"firstName\":");
+        string(e.firstName());
+        out.write(",\"lastName\":");
+        string(e.lastName());
+        out.write(",\"salary\":");
+        number(e.salary());
+        out.write(",\"managerId\":");
+        out.write(e.managerId() == null ? "null" : Long.toString(e.managerId()));
+        out.write('}');
+    }
+
+    private void amount(double v) throws IOException {
+        out.write(",\"amount\":");
+        number(v);
+    }
+
+    // JSON has no Infinity or NaN, so those are written as null.
+    private void number(double v) throws IOException {
+        out.write(Double.isFinite(v) ? Double.toString(v) : "null");
+    }
+
+    private void chain(List<Long> ids) throws IOException {
+        out.write(",\"chain\":[");
+        for (int k = 0; k < ids.size(); k++) {
+            if (k > 0) out.write(',');
+            out.write(Long.toString(ids.get(k)));
+        }
+        out.write(']');
+    }
+
+    // Names rarely need escaping, so clean runs are written in one call.
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            out.write(s, start, i - start);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> out.write(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,227 @@
+package com.company.organalyzer.report;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/*
+ * Writes an AnalysisReport section by section to a Writer, producing exactly the text of
+ * AnalysisReport.toString() without holding the whole report in memory.
+ *
+ * Numbers are formatted by hand when the default format locale prints them like en_US
+ * and the value cannot land on a rounding tie; everything else goes through a single
+ * reused Formatter, so the output never depends on which path was taken.
+ */
+public final class ReportWriter {
+
+    private static final String RULE = "═".repeat(80);
+
+    // Above this, or within BOUNDARY_MARGIN of a half unit, rounding is left to Formatter.
+    private static final double MAX_FAST = 1e9;
+    private static final double BOUNDARY_MARGIN = 1e-3;
+
+    private final Writer out;
+    private final Formatter formatter;
+    private final boolean plainNumbers;
+    private final char[] digits = new char[32];
+
+    public ReportWriter(OutputStream out) {
+        this(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public ReportWriter(Writer out) {
+        this.out = out instanceof BufferedWriter || out instanceof StringWriter
+                ? out
+                : new BufferedWriter(out, 1 << 16);
+
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        this.formatter = new Formatter(this.out, locale);
+        this.plainNumbers = String.format(locale, "%,.2f|%d|%.0f", 1234567.891, 1234567890L, 42.0)
+                .equals("1,234,567.89|1234567890|42");
+    }
+
+    // Writes the report and flushes; the underlying stream is left open.
+    public void write(AnalysisReport report) throws IOException {
+        write(report, null);
+    }
+
+    // Same as write(report), with the invalid-reference and duplicate sections already rendered
+    // by referenceSections() from the report's own lists.
+    public void write(AnalysisReport report, String referenceSections) throws IOException {
+        try (Stage stage = Metrics.stage("report")) {
+            writeSections(report, referenceSections);
+            stage.rows(report.getUnderpaidManagers().size() + report.getOverpaidManagers().size()
+                    + report.getLongReportingLines().size() + report.getInvalidManagerReferences().size()
+                    + report.getDuplicateIds().size() + report.getCircularReferences().size()
+                    + report.getCutOffEmployees().size());
+        }
+    }
+
+    /*
+     * The invalid-reference and duplicate sections are final as soon as the repository is built,
+     * before any analysis has run, so a pipeline can render them while the salary and depth
+     * rules are still running and hand the text to write().
+     */
+    public static String referenceSections(List<String> invalidManagerRefs, List<String> duplicateIds) {
+        StringWriter text = new StringWriter();
+        ReportWriter w = new ReportWriter(text);
+        try {
+            w.section("INVALID MANAGER REFERENCES:\n", invalidManagerRefs);
+            w.section("DUPLICATE EMPLOYEE IDs:\n", duplicateIds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);      // a StringWriter never throws
+        }
+        return text.toString();
+    }
+
+    private void writeSections(AnalysisReport report, String referenceSections) throws IOException {
+
+        out.write(RULE);
+        out.write("\n");
+        out.write("               COMPANY ORGANIZATION ANALYSIS REPORT\n");
+        out.write(RULE);
+        out.write("\n\n");
+
+        if (!report.getUnderpaidManagers().isEmpty()) {
+            out.write("MANAGERS EARNING LESS THAN REQUIRED:\n");
+            for (var e : report.getUnderpaidManagers().entrySet()) {
+                bullet(e.getKey());
+                out.write(" → short by $");
+                money(e.getValue());
+                out.write("\n");
+            }
+            out.write("\n");
+        }
+
+        if (!report.getOverpaidManagers().isEmpty()) {
+            out.write("MANAGERS EARNING MORE THAN ALLOWED:\n");
+            for (var e : report.getOverpaidManagers().entrySet()) {
+                bullet(e.getKey());
+                out.write(" → over by $");
+                money(e.getValue());
+                out.write("\n");
+            }
+            out.write("\n");
+        }
+
+        if (!report.getLongReportingLines().isEmpty()) {
+            out.write("EMPLOYEES WITH TOO LONG REPORTING LINES (>");
+            out.write(Integer.toString(report.getMaxDepth()));
+            out.write(" levels):\n");
+            for (var e : report.getLongReportingLines().entrySet()) {
+                bullet(e.getKey());
+                out.write(" → ");
+                out.write(String.valueOf(e.getValue()));
+                out.write(" level(s) too deep\n");
+            }
+            out.write("\n");
+        }
+
+        if (referenceSections == null) {
+            section("INVALID MANAGER REFERENCES:\n", report.getInvalidManagerReferences());
+            section("DUPLICATE EMPLOYEE IDs:\n", report.getDuplicateIds());
+        } else {
+            out.write(referenceSections);
+        }
+        section("CIRCULAR REFERENCES DETECTED:\n", report.getCircularReferences());
+        section("EMPLOYEES CUT OFF BY CIRCULAR REFERENCES:\n", report.getCutOffEmployees());
+
+        out.write("FILE PROCESS SUMMARY:\n");
+        out.write(" • Total employees processed: ");
+        out.write(Integer.toString(report.getTotalProcessed()));
+        out.write("\n • Invalid entries: ");
+        out.write(Integer.toString(report.getInvalidEntries()));
+        out.write("\n");
+
+        out.write("\n");
+        out.write(RULE);
+        out.write("\n");
+        out.flush();
+    }
+
+    private void section(String title, List<String> lines) throws IOException {
+        if (lines.isEmpty()) return;
+        out.write(title);
+        for (String s : lines) {
+            out.write(" • ");
+            out.write(s);
+            out.write("\n");
+        }
+        out.write("\n");
+    }
+
+    // " • " followed by Employee.toString()
+    private void bullet(Employee e) throws IOException {
+        out.write(" • ");
+        if (plainNumbers) writeLong(e.id(), false);
+        else format("%d", e.id());
+        out.write(": ");
+        out.write(String.valueOf(e.firstName()));
+        out.write(" ");
+        out.write(String.valueOf(e.lastName()));
+        out.write(" ($");
+
+        long whole = plainNumbers ? rounded(e.salary(), 1) : -1;
+        if (whole >= 0) writeLong(whole, false);
+        else format("%.0f", e.salary());
+
+        if (e.managerId() == null) {
+            out.write(", CEO)");
+        } else {
+            out.write(", reports to ");
+            out.write(Long.toString(e.managerId()));
+            out.write(")");
+        }
+    }
+
+    // %,.2f
+    private void money(double v) throws IOException {
+        long cents = plainNumbers ? rounded(v, 100) : -1;
+        if (cents < 0) {
+            format("%,.2f", v);
+            return;
+        }
+        writeLong(cents / 100, true);
+        out.write('.');
+        long c = cents % 100;
+        out.write((char) ('0' + c / 10));
+        out.write((char) ('0' + c % 10));
+    }
+
+    // v * scale rounded half-up, or -1 when the value is negative (including -0.0), not finite,
+    // too large, or so close to a tie that double arithmetic cannot be sure of the result.
+    private static long rounded(double v, int scale) {
+        if (Double.doubleToRawLongBits(v) < 0 || !(v < MAX_FAST)) return -1;
+        double x = v * scale;
+        double floor = Math.floor(x);
+        double frac = x - floor;
+        if (Math.abs(frac - 0.5) < BOUNDARY_MARGIN) return -1;
+        return (long) floor + (frac > 0.5 ? 1 : 0);
+    }
+
+    private void writeLong(long v, boolean grouped) throws IOException {
+        if (v < 0) {
+            out.write(Long.toString(v));
+            return;
+        }
+        int pos = digits.length;
+        int count = 0;
+        do {
+            if (grouped && count > 0 && count % 3 == 0) digits[--pos] = ',';
+            digits[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+            count++;
+        } while (v > 0);
+        out.write(digits, pos, digits.length - pos);
+    }
+
+    private void format(String pattern, Object value) throws IOException {
+        formatter.format(pattern, value);
+        if (formatter.ioException() != null) throw formatter.ioException();
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.organalyzer.rules;
+
+import java.util.Properties;
+
+public record AnalysisThresholds(double minMultiplier, double maxMultiplier, int maxDepth) {
+
+    public static final AnalysisThresholds DEFAULTS = new AnalysisThresholds(1.20, 1.50, 4);
+
+    public AnalysisThresholds {
+        if (!(minMultiplier > 0)) throw new IllegalArgumentException("Minimum multiplier must be positive: " + minMultiplier);
+        if (!(maxMultiplier >= minMultiplier)) {
+            throw new IllegalArgumentException("Maximum multiplier " + maxMultiplier
+                    + " is below the minimum " + minMultiplier);
+        }
+        if (maxDepth < 0) throw new IllegalArgumentException("Max depth must not be negative: " + maxDepth);
+    }
+
+    // Reads analysis.minMultiplier, analysis.maxMultiplier and analysis.maxDepth; missing keys keep the defaults.
+    public static AnalysisThresholds fromProperties(Properties props) {
+        return new AnalysisThresholds(
+                Double.parseDouble(props.getProperty("analysis.minMultiplier", String.valueOf(DEFAULTS.minMultiplier))),
+                Double.parseDouble(props.getProperty("analysis.maxMultiplier", String.valueOf(DEFAULTS.maxMultiplier))),
+                Integer.parseInt(props.getProperty("analysis.maxDepth", String.valueOf(DEFAULTS.maxDepth))));
+    }
+}
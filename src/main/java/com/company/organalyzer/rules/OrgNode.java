@@ -0,0 +1,118 @@
+package com.company.organalyzer.rules;
+
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.HierarchyEngine;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+
+/*
+ * The employee a rule is looking at. One instance is moved along the org by the engine;
+ * subordinate statistics are computed at most once per employee and shared by every rule.
+ */
+public final class OrgNode {
+
+    private final ColumnarEmployeeRepository org;
+    private final HierarchyEngine.Result hierarchy;
+
+    private int i;
+    private int allowed;            // bit per Rule.Need of the rule being checked
+    private String rule;
+
+    private boolean statsReady;
+    private double average;
+    private double maxSalary;
+    private double minSalary;
+
+    OrgNode(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy) {
+        this.org = org;
+        this.hierarchy = hierarchy;
+    }
+
+    void moveTo(int index) {
+        i = index;
+        statsReady = false;
+    }
+
+    void checking(Rule r, int needs) {
+        rule = r.name();
+        allowed = needs;
+    }
+
+    public ColumnarEmployeeRepository org() { return org; }
+    public int index() { return i; }
+    public long id() { return org.id(i); }
+    public double salary() { return org.salary(i); }
+    public long salaryCents() { return org.salaryCents(i); }
+    public boolean hasManager() { return org.managerId(i) != ColumnarEmployeeRepository.NO_MANAGER; }
+
+    // ---- DEPTH ----
+
+    // Levels below the CEO, or HierarchyEngine.UNREACHABLE.
+    public int depth() {
+        require(Rule.Need.DEPTH);
+        return hierarchy.depth(i);
+    }
+
+    // ---- PARENT ----
+
+    // The manager's index, or NONE for the CEO and for unresolved managers.
+    public int parent() {
+        require(Rule.Need.PARENT);
+        return org.parent(i);
+    }
+
+    public double managerSalary() {
+        int p = parent();
+        return p == NONE ? Double.NaN : org.salary(p);
+    }
+
+    // ---- SUBORDINATES ----
+
+    public int subordinateCount() {
+        require(Rule.Need.SUBORDINATES);
+        return org.childEnd(i) - org.childStart(i);
+    }
+
+    public long subordinateCents() {
+        require(Rule.Need.SUBORDINATES);
+        return org.subordinateCents(i);
+    }
+
+    // NaN without subordinates, like the other statistics below.
+    public double subordinateAverage() {
+        require(Rule.Need.SUBORDINATES);
+        stats();
+        return average;
+    }
+
+    public double maxSubordinateSalary() {
+        require(Rule.Need.SUBORDINATES);
+        stats();
+        return maxSalary;
+    }
+
+    public double minSubordinateSalary() {
+        require(Rule.Need.SUBORDINATES);
+        stats();
+        return minSalary;
+    }
+
+    private void stats() {
+        if (statsReady) return;
+        statsReady = true;
+        average = HierarchyEngine.subordinateAverage(org, i);
+        maxSalary = Double.NaN;
+        minSalary = Double.NaN;
+        for (int k = org.childStart(i); k < org.childEnd(i); k++) {
+            double s = org.salary(org.child(k));
+            if (!(s <= maxSalary)) maxSalary = s;
+            if (!(s >= minSalary)) minSalary = s;
+        }
+    }
+
+    private void require(Rule.Need need) {
+        if ((allowed & (1 << need.ordinal())) == 0) {
+            throw new IllegalStateException("Rule " + rule + " did not declare " + need);
+        }
+    }
+}
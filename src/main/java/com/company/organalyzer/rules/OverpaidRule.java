@@ -0,0 +1,21 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+// A manager earning more than maxMultiplier times their direct reports' average; never the CEO.
+public record OverpaidRule(double maxMultiplier) implements Rule {
+
+    public static final String NAME = "overpaid";
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.SUBORDINATES); }
+
+    @Override
+    public double check(OrgNode node) {
+        if (!node.hasManager()) return Double.NaN;
+        long salary = node.salaryCents();
+        long sum = node.subordinateCents();
+        if (!SalaryBand.exact(salary, sum)) return SalaryBand.excess(node.salary(), node.subordinateAverage(), maxMultiplier);
+        return SalaryBand.excess(salary, sum, node.subordinateCount(), maxMultiplier);
+    }
+}
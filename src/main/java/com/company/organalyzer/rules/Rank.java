@@ -0,0 +1,32 @@
+package com.company.organalyzer.rules;
+
+/*
+ * A finding's place in severity order: larger amounts first, ties by employee index.
+ * Pages of findings are continued from the rank of the last one returned, and the token
+ * form is what API consumers pass back as their cursor.
+ */
+public record Rank(double amount, int index) {
+
+    // True when a finding (amount, index) comes strictly after this rank.
+    public boolean before(double otherAmount, int otherIndex) {
+        int c = Double.compare(otherAmount, amount);
+        return c < 0 || (c == 0 && otherIndex > index);
+    }
+
+    public String token() {
+        return Long.toHexString(Double.doubleToRawLongBits(amount)) + "-" + index;
+    }
+
+    public static Rank parse(String token) {
+        int dash = token.indexOf('-');
+        try {
+            if (dash <= 0) throw new NumberFormatException();
+            double amount = Double.longBitsToDouble(Long.parseUnsignedLong(token.substring(0, dash), 16));
+            int index = Integer.parseInt(token.substring(dash + 1));
+            if (index < 0 || Double.isNaN(amount)) throw new NumberFormatException();
+            return new Rank(amount, index);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+// More than maxDepth levels between the employee and the CEO; the amount is the excess levels.
+public record ReportingDepthRule(int maxDepth) implements Rule {
+
+    public static final String NAME = "reporting-depth";
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.DEPTH); }
+
+    @Override
+    public double check(OrgNode node) {
+        int d = node.depth();
+        return d > maxDepth ? d - maxDepth : Double.NaN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+/*
+ * A per-employee check run by RuleEngine. Every registered rule is evaluated in the same
+ * single pass over the org; a rule only sees the node data it declares in needs(), and the
+ * engine prepares each kind of data once per node for all rules together.
+ */
+public interface Rule {
+
+    enum Need { SUBORDINATES, DEPTH, PARENT }
+
+    // Unique within an engine; findings are reported under this name.
+    String name();
+
+    Set<Need> needs();
+
+    // How far the employee is past the rule's limit, or NaN when the rule is satisfied.
+    double check(OrgNode node);
+}
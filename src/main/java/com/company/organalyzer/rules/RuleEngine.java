@@ -0,0 +1,136 @@
+package com.company.organalyzer.rules;
+
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.service.HierarchyEngine;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Runs every registered rule in one pass over the org. Hierarchy data (cycles, depth) comes
+ * from a single HierarchyEngine walk, and per-node data is prepared once for all rules.
+ * Employees on a circular chain are skipped, as in OrganizationAnalyzer.
+ *
+ * Rules can be registered and removed while the engine is in use; an evaluation works on
+ * the rules registered when it started.
+ */
+public final class RuleEngine {
+
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+
+    public RuleEngine(List<Rule> rules) {
+        rules.forEach(this::register);
+    }
+
+    // The analyzer's checks: underpaid and overpaid managers, too deep reporting lines.
+    public static RuleEngine standard(AnalysisThresholds thresholds) {
+        return new RuleEngine(List.of(
+                new UnderpaidRule(thresholds.minMultiplier()),
+                new OverpaidRule(thresholds.maxMultiplier()),
+                new ReportingDepthRule(thresholds.maxDepth())));
+    }
+
+    public synchronized RuleEngine register(Rule rule) {
+        for (Rule r : rules) {
+            if (r.name().equals(rule.name())) throw new IllegalArgumentException("Duplicate rule: " + rule.name());
+        }
+        rules.add(rule);
+        return this;
+    }
+
+    public synchronized boolean unregister(String name) {
+        return rules.removeIf(r -> r.name().equals(name));
+    }
+
+    // Replaces the standard rules with ones using the new thresholds; other rules are kept.
+    public synchronized RuleEngine reconfigure(AnalysisThresholds thresholds) {
+        for (Rule r : standard(thresholds).rules) {
+            int at = -1;
+            for (int k = 0; k < rules.size(); k++) {
+                if (rules.get(k).name().equals(r.name())) at = k;
+            }
+            if (at >= 0) rules.set(at, r);
+            else rules.add(r);
+        }
+        return this;
+    }
+
+    public List<Rule> rules() {
+        return List.copyOf(rules);
+    }
+
+    public RuleResults evaluate(EmployeeRepository repo) {
+        var org = ColumnarEmployeeRepository.of(repo);
+        return evaluate(org, HierarchyEngine.run(org, false), 0, org.size());
+    }
+
+    // Evaluates employees [from, to) only, so callers can split the org across threads.
+    public RuleResults evaluate(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy, int from, int to) {
+        return evaluate(org, hierarchy, from, to, RuleResults.UNBOUNDED, Map.of());
+    }
+
+    // Keeps only the `limit` most severe findings per rule, worst first. A rule with a Rank in
+    // `after` skips everything up to it, which gives the next page of that rule's findings.
+    public RuleResults evaluateTop(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy,
+                                   int from, int to, int limit, Map<String, Rank> after) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+        return evaluate(org, hierarchy, from, to, limit, after);
+    }
+
+    // Receives findings as a scan finds them: in employee order, and in rule order per employee.
+    public interface Listener {
+        void found(Rule rule, int index, double amount) throws IOException;
+    }
+
+    // Hands every finding to the listener instead of collecting it, so memory does not grow
+    // with the number of findings.
+    public void scan(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy, int from, int to,
+                     Listener listener) throws IOException {
+        Rule[] active = rules.toArray(new Rule[0]);
+        int[] needs = needs(active);
+
+        OrgNode node = new OrgNode(org, hierarchy);
+        for (int i = from; i < to; i++) {
+            if (hierarchy.inCycle(i)) continue;
+            node.moveTo(i);
+            for (int r = 0; r < active.length; r++) {
+                node.checking(active[r], needs[r]);
+                double amount = active[r].check(node);
+                if (!Double.isNaN(amount)) listener.found(active[r], i, amount);
+            }
+        }
+    }
+
+    private static int[] needs(Rule[] active) {
+        int[] needs = new int[active.length];
+        for (int r = 0; r < active.length; r++) {
+            for (Rule.Need need : active[r].needs()) needs[r] |= 1 << need.ordinal();
+        }
+        return needs;
+    }
+
+    private RuleResults evaluate(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy,
+                                 int from, int to, int limit, Map<String, Rank> after) {
+        Rule[] active = rules.toArray(new Rule[0]);
+        int[] needs = needs(active);
+        RuleResults.Findings[] found = new RuleResults.Findings[active.length];
+        for (int r = 0; r < active.length; r++) found[r] = new RuleResults.Findings(limit, after.get(active[r].name()));
+
+        OrgNode node = new OrgNode(org, hierarchy);
+        for (int i = from; i < to; i++) {
+            if (hierarchy.inCycle(i)) continue;
+            node.moveTo(i);
+            for (int r = 0; r < active.length; r++) {
+                node.checking(active[r], needs[r]);
+                double amount = active[r].check(node);
+                if (!Double.isNaN(amount)) found[r].add(i, amount);
+            }
+        }
+
+        Map<String, RuleResults.Findings> byRule = new LinkedHashMap<>();
+        for (int r = 0; r < active.length; r++) byRule.put(active[r].name(), found[r].ranked());
+        return new RuleResults(byRule);
+    }
+}
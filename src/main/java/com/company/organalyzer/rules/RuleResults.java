@@ -0,0 +1,173 @@
+package com.company.organalyzer.rules;
+
+import java.util.*;
+
+// Per rule, the flagged employee indexes and amounts: in index order, or worst first when ranked.
+public final class RuleResults {
+
+    private final Map<String, Findings> byRule;
+
+    RuleResults(Map<String, Findings> byRule) {
+        this.byRule = byRule;
+    }
+
+    public Set<String> rules() { return Collections.unmodifiableSet(byRule.keySet()); }
+
+    public Findings get(String rule) {
+        Findings f = byRule.get(rule);
+        if (f == null) throw new NoSuchElementException("No results for rule: " + rule);
+        return f;
+    }
+
+    // Concatenates results for consecutive index ranges, in the order given. Ranked results
+    // are merged instead and stay bounded by their limit.
+    public static RuleResults concat(List<RuleResults> parts) {
+        Map<String, Findings> merged = new LinkedHashMap<>();
+        for (RuleResults part : parts) {
+            part.byRule.forEach((rule, f) -> merged.computeIfAbsent(rule, k -> f.emptyLike()).addAll(f));
+        }
+        merged.replaceAll((rule, f) -> f.ranked());
+        return new RuleResults(merged);
+    }
+
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /*
+     * Flagged employees and their amounts. Unbounded findings keep everything in index order.
+     * Bounded ones keep only the `limit` most severe (see Rank) in a min-heap whose root is the
+     * least severe kept, so memory never exceeds the limit however many employees are flagged;
+     * they skip findings up to an optional cursor and are read in severity order once ranked.
+     */
+    public static final class Findings {
+        private final int limit;
+        private final Rank after;
+        private int[] index;
+        private double[] amount;
+        private int size;
+        private long total;         // every finding offered
+        private long matching;      // findings after the cursor, kept or not
+        private boolean heap;
+
+        Findings(int limit, Rank after) {
+            if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+            this.limit = limit;
+            this.after = after;
+            int cap = Math.min(limit, 8);
+            index = new int[cap];
+            amount = new double[cap];
+            heap = limit != UNBOUNDED;
+        }
+
+        private Findings emptyLike() {
+            return new Findings(limit, after);
+        }
+
+        void add(int i, double v) {
+            total++;
+            if (limit == UNBOUNDED) {
+                append(i, v);
+                return;
+            }
+            if (after != null && !after.before(v, i)) return;
+            matching++;
+            if (size < limit) {
+                append(i, v);
+                siftUp(size - 1);
+            } else if (lessSevere(index[0], amount[0], i, v)) {
+                index[0] = i;
+                amount[0] = v;
+                siftDown(0);
+            }
+        }
+
+        private void append(int i, double v) {
+            if (size == index.length) {
+                int cap = (int) Math.min(limit, size * 2L);
+                index = Arrays.copyOf(index, cap);
+                amount = Arrays.copyOf(amount, cap);
+            }
+            index[size] = i;
+            amount[size++] = v;
+        }
+
+        private void addAll(Findings other) {
+            if (limit == UNBOUNDED) {
+                for (int k = 0; k < other.size; k++) append(other.index[k], other.amount[k]);
+                total += other.total;
+                return;
+            }
+            long offered = total + other.total;
+            long after = matching + other.matching;
+            for (int k = 0; k < other.size; k++) add(other.index[k], other.amount[k]);
+            total = offered;
+            matching = after;
+        }
+
+        // The kept findings, most severe first; no-op for unbounded findings.
+        Findings ranked() {
+            if (!heap) return this;
+            Integer[] order = new Integer[size];
+            for (int k = 0; k < size; k++) order[k] = k;
+            Arrays.sort(order, (x, y) -> lessSevere(index[x], amount[x], index[y], amount[y]) ? 1
+                    : lessSevere(index[y], amount[y], index[x], amount[x]) ? -1 : 0);
+            int[] i2 = new int[size];
+            double[] a2 = new double[size];
+            for (int k = 0; k < size; k++) {
+                i2[k] = index[order[k]];
+                a2[k] = amount[order[k]];
+            }
+            index = i2;
+            amount = a2;
+            heap = false;
+            return this;
+        }
+
+        private static boolean lessSevere(int i, double v, int j, double w) {
+            int c = Double.compare(v, w);
+            return c < 0 || (c == 0 && i > j);
+        }
+
+        private void siftUp(int k) {
+            while (k > 0) {
+                int p = (k - 1) / 2;
+                if (!lessSevere(index[k], amount[k], index[p], amount[p])) break;
+                swap(k, p);
+                k = p;
+            }
+        }
+
+        private void siftDown(int k) {
+            while (true) {
+                int l = 2 * k + 1;
+                if (l >= size) break;
+                int m = l + 1 < size && lessSevere(index[l + 1], amount[l + 1], index[l], amount[l]) ? l + 1 : l;
+                if (!lessSevere(index[m], amount[m], index[k], amount[k])) break;
+                swap(k, m);
+                k = m;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int i = index[a];
+            index[a] = index[b];
+            index[b] = i;
+            double v = amount[a];
+            amount[a] = amount[b];
+            amount[b] = v;
+        }
+
+        public int size() { return size; }
+        public int index(int k) { return index[k]; }
+        public double amount(int k) { return amount[k]; }
+
+        // All flagged employees, including those not kept.
+        public long total() { return total; }
+
+        // Where the next page starts, or null when nothing after the kept findings is left.
+        public Rank next() {
+            if (limit == UNBOUNDED || matching <= size || size == 0) return null;
+            ranked();
+            return new Rank(amount[size - 1], index[size - 1]);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.company.organalyzer.rules;
+
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+
+/*
+ * Salary band checks on whole cents, exact to the cent: a manager paid exactly 1.2 times the
+ * average is not underpaid by a rounding error. The multiplier is taken as the decimal it was
+ * written as, 1.2 meaning 12/10 rather than the double nearest to it, and salary × count × 10
+ * is compared with sum × 12 as 128-bit products. Nothing is allocated.
+ *
+ * Multipliers with more than MAX_DECIMALS decimals are compared in floating point instead,
+ * and so are salaries or totals that do not fit in cents (NO_CENTS): callers then pass the
+ * salary and the subordinates' average to the double overloads.
+ */
+public final class SalaryBand {
+
+    static final int MAX_DECIMALS = 6;
+
+    private SalaryBand() {}
+
+    // Dollars below multiplier × the average of count salaries summing to sumCents; NaN when not below.
+    public static double shortfall(long salaryCents, long sumCents, long count, double multiplier) {
+        if (count == 0) return Double.NaN;
+        long scale = scale(multiplier);
+        if (scale == 0) return shortfall(salaryCents / 100.0, sumCents / 100.0 / count, multiplier);
+        long p = Math.round(multiplier * scale);
+        long q = count * scale;
+        return compare(salaryCents, q, sumCents, p) < 0
+                ? difference(sumCents, p, salaryCents, q) / (q * 100.0)
+                : Double.NaN;
+    }
+
+    // Dollars above multiplier × the average of count salaries summing to sumCents; NaN when not above.
+    public static double excess(long salaryCents, long sumCents, long count, double multiplier) {
+        if (count == 0) return Double.NaN;
+        long scale = scale(multiplier);
+        if (scale == 0) return excess(salaryCents / 100.0, sumCents / 100.0 / count, multiplier);
+        long p = Math.round(multiplier * scale);
+        long q = count * scale;
+        return compare(salaryCents, q, sumCents, p) > 0
+                ? difference(salaryCents, q, sumCents, p) / (q * 100.0)
+                : Double.NaN;
+    }
+
+    // The same checks in floating point; NaN averages (no subordinates) are never flagged.
+    public static double shortfall(double salary, double average, double multiplier) {
+        double required = average * multiplier;
+        return salary < required ? required - salary : Double.NaN;
+    }
+
+    public static double excess(double salary, double average, double multiplier) {
+        double allowed = average * multiplier;
+        return salary > allowed ? salary - allowed : Double.NaN;
+    }
+
+    // Whether both amounts are whole cents the exact checks can use.
+    public static boolean exact(long salaryCents, long sumCents) {
+        return salaryCents != ColumnarEmployeeRepository.NO_CENTS && sumCents != ColumnarEmployeeRepository.NO_CENTS;
+    }
+
+    // The smallest power of ten that makes the multiplier whole, or 0 when none up to MAX_DECIMALS does.
+    static long scale(double multiplier) {
+        long scale = 1;
+        for (int k = 0; k <= MAX_DECIMALS; k++, scale *= 10) {
+            if (Math.round(multiplier * scale) / (double) scale == multiplier) return scale;
+        }
+        return 0;
+    }
+
+    // Sign of a × b - c × d, compared as 128-bit products so it cannot overflow.
+    static int compare(long a, long b, long c, long d) {
+        int high = Long.compare(Math.multiplyHigh(a, b), Math.multiplyHigh(c, d));
+        return high != 0 ? high : Long.compareUnsigned(a * b, c * d);
+    }
+
+    // a × b - c × d when it is not negative, rounded to a double.
+    private static double difference(long a, long b, long c, long d) {
+        long low = a * b - c * d;
+        long high = Math.multiplyHigh(a, b) - Math.multiplyHigh(c, d)
+                - (Long.compareUnsigned(a * b, c * d) < 0 ? 1 : 0);
+        return high * 0x1p64 + ((low >>> 1) * 2.0 + (low & 1));
+    }
+}
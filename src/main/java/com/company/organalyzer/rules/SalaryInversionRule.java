@@ -0,0 +1,18 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+// A manager paid less than their best-paid direct report; the amount is the gap.
+public record SalaryInversionRule() implements Rule {
+
+    public static final String NAME = "salary-inversion";
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.SUBORDINATES); }
+
+    @Override
+    public double check(OrgNode node) {
+        double top = node.maxSubordinateSalary();
+        return top > node.salary() ? top - node.salary() : Double.NaN;
+    }
+}
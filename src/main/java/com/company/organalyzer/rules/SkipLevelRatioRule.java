@@ -0,0 +1,28 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+
+// An employee earning more than maxRatio times their skip-level manager (their manager's manager).
+public record SkipLevelRatioRule(double maxRatio) implements Rule {
+
+    public static final String NAME = "skip-level-ratio";
+
+    public SkipLevelRatioRule {
+        if (!(maxRatio > 0)) throw new IllegalArgumentException("Ratio must be positive: " + maxRatio);
+    }
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.PARENT); }
+
+    @Override
+    public double check(OrgNode node) {
+        int manager = node.parent();
+        if (manager == NONE) return Double.NaN;
+        int skip = node.org().parent(manager);
+        if (skip == NONE) return Double.NaN;
+        double limit = node.org().salary(skip) * maxRatio;
+        return node.salary() > limit ? node.salary() - limit : Double.NaN;
+    }
+}
@@ -0,0 +1,22 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+// A manager with more than maxDirectReports direct reports; the amount is the excess.
+public record SpanOfControlRule(int maxDirectReports) implements Rule {
+
+    public static final String NAME = "span-of-control";
+
+    public SpanOfControlRule {
+        if (maxDirectReports < 0) throw new IllegalArgumentException("Limit must not be negative: " + maxDirectReports);
+    }
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.SUBORDINATES); }
+
+    @Override
+    public double check(OrgNode node) {
+        int reports = node.subordinateCount();
+        return reports > maxDirectReports ? reports - maxDirectReports : Double.NaN;
+    }
+}
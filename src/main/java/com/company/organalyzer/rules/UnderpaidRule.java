@@ -0,0 +1,20 @@
+package com.company.organalyzer.rules;
+
+import java.util.Set;
+
+// A manager earning less than minMultiplier times their direct reports' average salary.
+public record UnderpaidRule(double minMultiplier) implements Rule {
+
+    public static final String NAME = "underpaid";
+
+    @Override public String name() { return NAME; }
+    @Override public Set<Need> needs() { return Set.of(Need.SUBORDINATES); }
+
+    @Override
+    public double check(OrgNode node) {
+        long salary = node.salaryCents();
+        long sum = node.subordinateCents();
+        if (!SalaryBand.exact(salary, sum)) return SalaryBand.shortfall(node.salary(), node.subordinateAverage(), minMultiplier);
+        return SalaryBand.shortfall(salary, sum, node.subordinateCount(), minMultiplier);
+    }
+}
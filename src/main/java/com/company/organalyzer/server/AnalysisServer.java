@@ -0,0 +1,333 @@
+package com.company.organalyzer.server;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.FindingsPage;
+import com.company.organalyzer.report.ReportWriter;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.OverpaidRule;
+import com.company.organalyzer.rules.ReportingDepthRule;
+import com.company.organalyzer.rules.RuleEngine;
+import com.company.organalyzer.rules.UnderpaidRule;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.HierarchyEngine;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Keeps one analyzed load of a CSV file in memory and answers queries over HTTP.
+ *
+ *   GET /underpaid, /overpaid, /deep    flagged employees as JSON; with ?limit=K the K worst,
+ *                                       and with &cursor= the page after a previous one
+ *   GET /employees/{id}/chain           the employee's reporting chain up to the CEO
+ *   GET /report                         the text report, as printed by Main
+ *   GET /status                         version, load time and counts
+ *
+ * Requests run on virtual threads and read whatever state is current when they start;
+ * a background watcher re-parses the file when it changes and swaps the new state in
+ * atomically, so requests never wait for a reload. A reload that fails keeps the old state.
+ */
+public class AnalysisServer implements AutoCloseable {
+
+    private static final long RELOAD_QUIET_MILLIS = 200;
+    private static final int MAX_PAGE = 10_000;
+
+    private final Path csv;
+    private final RuleEngine rules;
+    private final AtomicReference<ServerState> state = new AtomicReference<>();
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final WatchService watcher;
+    private final Thread watchThread;
+
+    public AnalysisServer(Path csv, int port) throws IOException {
+        this(csv, port, RuleEngine.standard(AnalysisThresholds.DEFAULTS));
+    }
+
+    // Rules registered on or reconfigured in the engine apply from the next reload on.
+    public AnalysisServer(Path csv, int port, RuleEngine rules) throws IOException {
+        this.csv = csv.toAbsolutePath();
+        this.rules = rules;
+        state.set(ServerState.load(this.csv, 1, rules));
+
+        http = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(executor);
+
+        http.createContext("/underpaid", get(this::underpaid));
+        http.createContext("/overpaid", get(this::overpaid));
+        http.createContext("/deep", get(this::deep));
+        http.createContext("/employees/", get(this::chain));
+        http.createContext("/report", get(this::report));
+        http.createContext("/status", get(this::status));
+
+        watcher = this.csv.getFileSystem().newWatchService();
+        this.csv.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchThread = new Thread(this::watch, "csv-watcher");
+        watchThread.setDaemon(true);
+    }
+
+    public void start() {
+        http.start();
+        watchThread.start();
+    }
+
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    public RuleEngine rules() {
+        return rules;
+    }
+
+    public long version() {
+        return state.get().version();
+    }
+
+    // Re-parses and re-analyzes the file, then publishes the result.
+    public synchronized void reload() throws IOException {
+        ServerState current = state.get();
+        state.set(ServerState.load(csv, current.version() + 1, rules));
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchThread.interrupt();
+        watcher.close();
+        http.stop(0);
+        executor.shutdown();
+    }
+
+    // ---- file watching ----
+
+    private void watch() {
+        Path name = csv.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = touches(key, name);
+                key.reset();
+                if (!changed) continue;
+
+                // let the writer finish: wait until the directory has been quiet for a moment
+                while ((key = watcher.poll(RELOAD_QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touches(key, name);
+                    key.reset();
+                }
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Reload of " + csv + " failed, keeping version " + version() + ": " + e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // server closed
+        }
+    }
+
+    private static boolean touches(WatchKey key, Path name) {
+        boolean hit = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) hit = true;
+        }
+        return hit;
+    }
+
+    // ---- endpoints ----
+
+    private interface Endpoint {
+        Response handle(ServerState s, URI uri);
+    }
+
+    private record Response(int status, String contentType, String body) {
+        static Response json(StringBuilder body) {
+            return new Response(200, "application/json; charset=utf-8", body.toString());
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "application/json; charset=utf-8",
+                    Json.string(new StringBuilder("{\"error\":"), message).append('}').toString());
+        }
+    }
+
+    private HttpHandler get(Endpoint endpoint) {
+        return exchange -> {
+            Response response;
+            try {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    response = Response.error(405, "Only GET is supported");
+                } else {
+                    response = endpoint.handle(state.get(), exchange.getRequestURI());
+                }
+            } catch (RuntimeException e) {
+                response = Response.error(500, String.valueOf(e.getMessage()));
+            }
+            send(exchange, response);
+        };
+    }
+
+    private Response underpaid(ServerState s, URI uri) {
+        Map<String, String> query = query(uri);
+        if (query.containsKey("limit")) return page(s, UnderpaidRule.NAME, "shortBy", query);
+        return Response.json(amounts(s.report().getUnderpaidManagers(), "shortBy"));
+    }
+
+    private Response overpaid(ServerState s, URI uri) {
+        Map<String, String> query = query(uri);
+        if (query.containsKey("limit")) return page(s, OverpaidRule.NAME, "overBy", query);
+        return Response.json(amounts(s.report().getOverpaidManagers(), "overBy"));
+    }
+
+    private Response deep(ServerState s, URI uri) {
+        Map<String, String> query = query(uri);
+        if (query.containsKey("limit")) return page(s, ReportingDepthRule.NAME, "levelsTooDeep", query);
+        StringBuilder sb = new StringBuilder("[");
+        for (var e : s.report().getLongReportingLines().entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            Json.employee(sb, e.getKey()).append(",\"levelsTooDeep\":").append(e.getValue()).append('}');
+        }
+        return Response.json(sb.append(']'));
+    }
+
+    // {"total":N,"next":cursor or null,"items":[...]}, worst first
+    private static Response page(ServerState s, String rule, String field, Map<String, String> query) {
+        int limit;
+        try {
+            limit = Integer.parseInt(query.get("limit"));
+        } catch (NumberFormatException e) {
+            return Response.error(400, "Invalid limit: " + query.get("limit"));
+        }
+        if (limit <= 0 || limit > MAX_PAGE) return Response.error(400, "Limit must be between 1 and " + MAX_PAGE);
+
+        FindingsPage page;
+        try {
+            page = OrganizationAnalyzer.page(s.org(), s.hierarchy(), s.rules(), rule, limit, query.get("cursor"));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            // the rule was not registered at load time: an empty page, like the unpaged list
+            page = new FindingsPage(rule, List.of(), 0, null);
+        }
+
+        StringBuilder sb = new StringBuilder("{\"total\":").append(page.total()).append(",\"next\":");
+        if (page.hasMore()) Json.string(sb, page.nextCursor());
+        else sb.append("null");
+        sb.append(",\"items\":[");
+        boolean integral = rule.equals(ReportingDepthRule.NAME);
+        for (int k = 0; k < page.items().size(); k++) {
+            var item = page.items().get(k);
+            if (k > 0) sb.append(',');
+            Json.employee(sb, item.employee()).append(",\"").append(field).append("\":");
+            if (integral) sb.append((int) item.amount());
+            else Json.number(sb, item.amount());
+            sb.append('}');
+        }
+        return Response.json(sb.append("]}"));
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static StringBuilder amounts(Map<Employee, Double> flagged, String field) {
+        StringBuilder sb = new StringBuilder("[");
+        for (var e : flagged.entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            Json.number(Json.employee(sb, e.getKey()).append(",\"").append(field).append("\":"), e.getValue()).append('}');
+        }
+        return sb.append(']');
+    }
+
+    // /employees/{id}/chain
+    private Response chain(ServerState s, URI uri) {
+        String path = uri.getPath();
+        String[] parts = path.split("/");
+        if (parts.length != 4 || !parts[3].equals("chain")) return Response.error(404, "Not found: " + path);
+
+        long id;
+        try {
+            id = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return Response.error(400, "Invalid employee ID: " + parts[2]);
+        }
+
+        ColumnarEmployeeRepository org = s.org();
+        HierarchyEngine.Result hierarchy = s.hierarchy();
+        int i = org.indexOf(id);
+        if (i == ColumnarEmployeeRepository.NONE) return Response.error(404, "Unknown employee ID: " + id);
+
+        int depth = hierarchy.depth(i);
+        StringBuilder sb = new StringBuilder("{\"id\":").append(id)
+                .append(",\"depth\":").append(depth == HierarchyEngine.UNREACHABLE ? "null" : String.valueOf(depth))
+                .append(",\"reachesCeo\":").append(depth != HierarchyEngine.UNREACHABLE)
+                .append(",\"inCycle\":").append(hierarchy.inCycle(i))
+                .append(",\"cutOff\":").append(hierarchy.cutOffByCycle(i))
+                .append(",\"chain\":[");
+
+        // stops at the CEO, at a missing manager, or after going once around a cycle
+        Set<Integer> seen = new HashSet<>();
+        for (int cur = i; cur != ColumnarEmployeeRepository.NONE && seen.add(cur); cur = org.parent(cur)) {
+            if (cur != i) sb.append(',');
+            Json.employee(sb, org.employee(cur)).append('}');
+        }
+        return Response.json(sb.append("]}"));
+    }
+
+    private Response report(ServerState s, URI uri) {
+        StringWriter out = new StringWriter();
+        try {
+            new ReportWriter(out).write(s.report());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Response(200, "text/plain; charset=utf-8", out.toString());
+    }
+
+    private Response status(ServerState s, URI uri) {
+        StringBuilder sb = new StringBuilder("{\"version\":").append(s.version())
+                .append(",\"loadedAt\":");
+        Json.string(sb, s.loadedAt().toString())
+                .append(",\"employees\":").append(s.org().size())
+                .append(",\"parseErrors\":").append(s.parseErrors().size())
+                .append(",\"underpaid\":").append(s.report().getUnderpaidManagers().size())
+                .append(",\"overpaid\":").append(s.report().getOverpaidManagers().size())
+                .append(",\"deep\":").append(s.report().getLongReportingLines().size())
+                .append(",\"cycles\":").append(s.report().getCircularReferences().size())
+                .append('}');
+        return Response.json(sb);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
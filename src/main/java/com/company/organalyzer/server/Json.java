@@ -0,0 +1,44 @@
+package com.company.organalyzer.server;
+
+import com.company.organalyzer.model.Employee;
+
+// Just enough JSON writing for the server's responses.
+final class Json {
+
+    private Json() {}
+
+    static StringBuilder string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    // JSON has no Infinity or NaN, so those are written as null.
+    static StringBuilder number(StringBuilder sb, double v) {
+        return Double.isFinite(v) ? sb.append(v) : sb.append("null");
+    }
+
+    // Opens an employee object; the caller may add fields before closing it with '}'.
+    static StringBuilder employee(StringBuilder sb, Employee e) {
+        sb.append("{\"id\":").append(e.id()).append(",\"firstName\":");
+        string(sb, e.firstName());
+        sb.append(",\"lastName\":");
+        string(sb, e.lastName());
+        number(sb.append(",\"salary\":"), e.salary());
+        sb.append(",\"managerId\":").append(e.managerId());
+        return sb;
+    }
+}
@@ -0,0 +1,34 @@
+package com.company.organalyzer.server;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.rules.RuleEngine;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.HierarchyEngine;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+// One immutable, fully analyzed load of the CSV; the server swaps whole states atomically.
+// Its rules are a copy taken at load time, so pages agree with the report until the next reload.
+record ServerState(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy, AnalysisReport report,
+                   RuleEngine rules, List<String> parseErrors, Instant loadedAt, long version) {
+
+    static ServerState load(Path csv, long version, RuleEngine live) throws IOException {
+        var rules = new RuleEngine(live.rules());
+
+        var builder = ColumnarEmployeeRepository.builder(1024);
+        var errors = CsvEmployeeParser.parse(csv, builder::add);
+        var org = builder.build();
+
+        int invalid = errors.size() + org.getInvalidManagers().size() + org.getDuplicateIds().size();
+        var analyzer = new OrganizationAnalyzer(org, rules);
+        AnalysisReport report = analyzer.analyzeParallel(builder.added(), invalid);
+
+        return new ServerState(org, analyzer.hierarchy(), report, rules,
+                List.copyOf(errors), Instant.now(), version);
+    }
+}
@@ -0,0 +1,407 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * EmployeeRepository backend that keeps the org in primitive columns indexed 0..size-1
+ * in first-seen order. Subordinates are stored CSR-style: the children of i are
+ * children[childOffsets[i] .. childOffsets[i + 1]), in the same order the map-based
+ * repository lists them. Employee records are only materialised by the view methods.
+ *
+ * Salaries are also kept in whole cents, and childCents holds the children's cents in CSR
+ * order, so a manager's subordinate total is a plain sum over one contiguous range. A salary
+ * too large to count in cents, or a total that would overflow, is NO_CENTS instead; the
+ * salary checks then fall back to floating point. Whether a range can overflow is decided up
+ * front from its length, so the sum itself is a plain reduction that C2 vectorizes.
+ */
+public final class ColumnarEmployeeRepository extends EmployeeRepository {
+
+    public static final int NONE = -1;
+    public static final long NO_MANAGER = Long.MIN_VALUE;
+    // Stored for a manager id of Long.MIN_VALUE, which would otherwise read as NO_MANAGER.
+    // Employee ids are positive, so like the original it never resolves and is reported as invalid.
+    static final long UNRESOLVABLE_MANAGER = 0;
+    public static final long NO_CENTS = Long.MIN_VALUE;
+
+    // Below 2^62 cents, so two salaries never overflow a long before addExact sees them.
+    private static final double MAX_SALARY = 0x1p62 / 100;
+
+    // Rough bytes per CSV row, to presize a builder from the file's size.
+    private static final int BYTES_PER_ROW = 40;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] managerIds;   // NO_MANAGER for the CEO
+    private final double[] salaries;
+    private final String[] firstNames;
+    private final String[] lastNames;
+
+    private final int[] parent;        // NONE for the CEO and for unresolved managers
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int ceo;
+
+    private final long[] salaryCents;
+    private final long[] childCents;   // salaryCents of children[k]
+    private final long safeChildren;   // ranges up to this long neither overflow nor hold NO_CENTS
+
+    private final LongIndex index;
+
+    private ColumnarEmployeeRepository(Builder b) {
+        super(new ArrayList<>(), b.duplicates);
+
+        size = b.size;
+        ids = b.ids;
+        managerIds = b.managerIds;
+        salaries = b.salaries;
+        firstNames = b.firstNames;
+        lastNames = b.lastNames;
+        index = b.index;
+
+        parent = new int[size];
+        childOffsets = new int[size + 1];
+        int firstCeo = NONE;
+
+        for (int i = 0; i < size; i++) {
+            long mgr = managerIds[i];
+            parent[i] = NONE;
+            if (mgr == NO_MANAGER) {
+                if (firstCeo == NONE) firstCeo = i;
+                continue;
+            }
+            int p = index.get(mgr);
+            if (p == NONE) {
+                getInvalidManagers().add(new Finding.InvalidManager(ids[i], mgr).message());
+                continue;
+            }
+            parent[i] = p;
+            childOffsets[p + 1]++;
+        }
+        ceo = firstCeo;
+
+        for (int i = 0; i < size; i++) childOffsets[i + 1] += childOffsets[i];
+
+        children = new int[childOffsets[size]];
+        int[] fill = Arrays.copyOf(childOffsets, size);
+        for (int i = 0; i < size; i++) {
+            if (parent[i] != NONE) children[fill[parent[i]]++] = i;
+        }
+
+        salaryCents = cents(salaries, size);
+        childCents = gather(salaryCents, children);
+        safeChildren = safeChildren(childCents);
+    }
+
+    // Restores a repository whose links are already resolved, as written by SnapshotWriter.
+    ColumnarEmployeeRepository(long[] ids, long[] managerIds, double[] salaries,
+                               String[] firstNames, String[] lastNames,
+                               int[] parent, int[] childOffsets, int[] children, int ceo,
+                               LongIndex index, List<String> invalidManagers, List<Long> duplicates) {
+        super(invalidManagers, duplicates);
+
+        this.size = ids.length;
+        this.ids = ids;
+        this.managerIds = managerIds;
+        this.salaries = salaries;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.parent = parent;
+        this.childOffsets = childOffsets;
+        this.children = children;
+        this.ceo = ceo;
+        this.index = index;
+        this.salaryCents = cents(salaries, size);
+        this.childCents = gather(salaryCents, children);
+        this.safeChildren = safeChildren(childCents);
+    }
+
+    // Nearest whole cent; exact for salaries written with at most two decimals. NO_CENTS for
+    // salaries past MAX_SALARY, infinite or NaN, which Math.round would clamp.
+    public static long toCents(double salary) {
+        if (!(Math.abs(salary) < MAX_SALARY)) return NO_CENTS;
+        return Math.round(salary * 100);
+    }
+
+    // a + b, or NO_CENTS when either is or the sum overflows.
+    public static long addCents(long a, long b) {
+        if (a == NO_CENTS || b == NO_CENTS) return NO_CENTS;
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            return NO_CENTS;
+        }
+    }
+
+    // An employee's manager as stored in a manager column: NO_MANAGER for none.
+    static long managerColumn(Long managerId) {
+        if (managerId == null) return NO_MANAGER;
+        return managerId == NO_MANAGER ? UNRESOLVABLE_MANAGER : managerId;
+    }
+
+    private static long[] cents(double[] salaries, int size) {
+        long[] out = new long[size];
+        for (int i = 0; i < out.length; i++) out[i] = toCents(salaries[i]);
+        return out;
+    }
+
+    private static long[] gather(long[] values, int[] order) {
+        long[] out = new long[order.length];
+        for (int k = 0; k < out.length; k++) out[k] = values[order[k]];
+        return out;
+    }
+
+    // How many children can be summed without overflow: none once any of them is NO_CENTS.
+    private static long safeChildren(long[] cents) {
+        long max = 0;
+        for (long c : cents) {
+            if (c == NO_CENTS) return 0;
+            max = Math.max(max, c);
+        }
+        return max == 0 ? Long.MAX_VALUE : Long.MAX_VALUE / max;
+    }
+
+    public static Builder builder(int expectedSize) { return new Builder(expectedSize); }
+
+    // A builder presized for about as many rows as the CSV file holds.
+    public static Builder builderFor(Path csv) throws IOException {
+        return new Builder((int) Math.min(1 << 24, Files.size(csv) / BYTES_PER_ROW));
+    }
+
+    // Returns the repository itself when it is already columnar, otherwise an equivalent copy.
+    public static ColumnarEmployeeRepository of(EmployeeRepository repo) {
+        if (repo instanceof ColumnarEmployeeRepository columnar) return columnar;
+
+        // the source was already counted as a repository stage when it was built
+        Builder b = new Builder(repo.allEmployees().size());
+        repo.allEmployees().forEach(b::add);
+        b.duplicates.addAll(repo.getDuplicates());
+        return b.assemble();
+    }
+
+    // Concatenates shards in order and resolves manager links across all of them, so a reference
+    // is only invalid when no shard has the id. Duplicates found inside a shard are kept;
+    // an id present in several shards is reported like a duplicate in one file, and the last row wins.
+    public static ColumnarEmployeeRepository merge(List<ColumnarEmployeeRepository> shards) {
+        int total = 0;
+        for (var shard : shards) total += shard.size;
+
+        try (Stage stage = Metrics.stage("merge")) {
+            Builder b = new Builder(total);
+            for (var shard : shards) {
+                b.duplicates.addAll(shard.getDuplicates());
+                for (int i = 0; i < shard.size; i++) {
+                    b.add(shard.ids[i], shard.firstNames[i], shard.lastNames[i], shard.salaries[i], shard.managerIds[i]);
+                }
+            }
+            var merged = b.assemble();
+            stage.rows(total);
+            Metrics.peak("employees", merged.size);
+            Metrics.peak("invalidManagers", merged.getInvalidManagers().size());
+            Metrics.peak("duplicateIds", merged.getDuplicates().size());
+            return merged;
+        }
+    }
+
+    // ---- primitive accessors ----
+
+    public int size() { return size; }
+    public int indexOf(long id) { return index.get(id); }
+    public int ceoIndex() { return ceo; }
+
+    public long id(int i) { return ids[i]; }
+    public double salary(int i) { return salaries[i]; }
+    public long managerId(int i) { return managerIds[i]; }
+    public int parent(int i) { return parent[i]; }
+    public String firstName(int i) { return firstNames[i]; }
+    public String lastName(int i) { return lastNames[i]; }
+
+    public int childStart(int i) { return childOffsets[i]; }
+    public int childEnd(int i) { return childOffsets[i + 1]; }
+    public int child(int k) { return children[k]; }
+
+    public long salaryCents(int i) { return salaryCents[i]; }
+
+    // Sum of the direct subordinates' salaries in cents, or NO_CENTS when it does not fit. Short
+    // enough ranges, which is all of them for realistic salaries, take the plain counted loop.
+    public long subordinateCents(int i) {
+        int from = childOffsets[i], end = childOffsets[i + 1];
+        if (end - from > safeChildren) return checkedCents(from, end);
+        long sum = 0;
+        for (int k = from; k < end; k++) sum += childCents[k];
+        return sum;
+    }
+
+    private long checkedCents(int from, int end) {
+        long sum = 0;
+        for (int k = from; k < end; k++) {
+            sum = addCents(sum, childCents[k]);
+            if (sum == NO_CENTS) return NO_CENTS;
+        }
+        return sum;
+    }
+
+    LongIndex index() { return index; }
+
+    public Employee employee(int i) {
+        long mgr = managerIds[i];
+        return new Employee(ids[i], firstNames[i], lastNames[i], salaries[i], mgr == NO_MANAGER ? null : mgr);
+    }
+
+    // ---- EmployeeRepository views ----
+
+    @Override
+    public Employee getCeo() { return ceo == NONE ? null : employee(ceo); }
+
+    @Override
+    public Map<Long, Employee> allById() { return byIdView; }
+
+    @Override
+    public Collection<Employee> allEmployees() { return employeesView; }
+
+    @Override
+    public List<Employee> getSubordinates(long id) {
+        int i = index.get(id);
+        if (i == NONE || childOffsets[i] == childOffsets[i + 1]) return List.of();
+        return new SubordinateView(childOffsets[i], childOffsets[i + 1]);
+    }
+
+    private final List<Employee> employeesView = new AbstractList<>() {
+        @Override public Employee get(int i) {
+            Objects.checkIndex(i, size);
+            return employee(i);
+        }
+        @Override public int size() { return size; }
+    };
+
+    private final Map<Long, Employee> byIdView = new AbstractMap<>() {
+        @Override public Employee get(Object key) {
+            if (!(key instanceof Long id)) return null;
+            int i = index.get(id);
+            return i == NONE ? null : employee(i);
+        }
+        @Override public boolean containsKey(Object key) {
+            return key instanceof Long id && index.get(id) != NONE;
+        }
+        @Override public int size() { return size; }
+        @Override public Set<Entry<Long, Employee>> entrySet() {
+            return new AbstractSet<>() {
+                @Override public Iterator<Entry<Long, Employee>> iterator() {
+                    return new Iterator<>() {
+                        int next;
+                        @Override public boolean hasNext() { return next < size; }
+                        @Override public Entry<Long, Employee> next() {
+                            if (next >= size) throw new NoSuchElementException();
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(ids[i], employee(i));
+                        }
+                    };
+                }
+                @Override public int size() { return size; }
+            };
+        }
+    };
+
+    private final class SubordinateView extends AbstractList<Employee> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        SubordinateView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override public Employee get(int k) {
+            Objects.checkIndex(k, to - from);
+            return employee(children[from + k]);
+        }
+        @Override public int size() { return to - from; }
+    }
+
+    public static final class Builder {
+
+        private long[] ids;
+        private long[] managerIds;
+        private double[] salaries;
+        private String[] firstNames;
+        private String[] lastNames;
+        private final LongIndex index;
+        private final List<Long> duplicates = new ArrayList<>();
+        private int size;
+        private int added;
+        private boolean built;
+
+        private Builder(int expectedSize) {
+            int cap = Math.max(16, expectedSize);
+            ids = new long[cap];
+            managerIds = new long[cap];
+            salaries = new double[cap];
+            firstNames = new String[cap];
+            lastNames = new String[cap];
+            index = new LongIndex(cap);
+        }
+
+        public Builder add(Employee e) {
+            return add(e.id(), e.firstName(), e.lastName(), e.salary(), managerColumn(e.managerId()));
+        }
+
+        // A duplicate id overwrites the earlier row in place, like the map-based builder.
+        // managerId is NO_MANAGER for the CEO.
+        public Builder add(long id, String firstName, String lastName, double salary, long managerId) {
+            if (built) throw new IllegalStateException("Repository already built");
+            if (salary <= 0) throw new IllegalArgumentException("Salary must be positive: " + salary);
+            added++;
+
+            int i = index.putIfAbsent(id, size);
+            if (i != NONE) {
+                duplicates.add(id);
+            } else {
+                if (size == ids.length) grow();
+                i = size++;
+            }
+
+            ids[i] = id;
+            managerIds[i] = managerId;
+            salaries[i] = salary;
+            firstNames[i] = firstName;
+            lastNames[i] = lastName;
+            return this;
+        }
+
+        public int added() { return added; }
+
+        public ColumnarEmployeeRepository build() {
+            try (Stage stage = Metrics.stage("repository")) {
+                var repo = assemble();
+                stage.rows(size);
+                Metrics.peak("employees", size);
+                Metrics.peak("invalidManagers", repo.getInvalidManagers().size());
+                Metrics.peak("duplicateIds", duplicates.size());
+                return repo;
+            }
+        }
+
+        // build() without its stage, for copies and merges that their caller already accounts for
+        private ColumnarEmployeeRepository assemble() {
+            if (built) throw new IllegalStateException("Repository already built");
+            built = true;
+            return new ColumnarEmployeeRepository(this);
+        }
+
+        private void grow() {
+            int cap = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, cap);
+            managerIds = Arrays.copyOf(managerIds, cap);
+            salaries = Arrays.copyOf(salaries, cap);
+            firstNames = Arrays.copyOf(firstNames, cap);
+            lastNames = Arrays.copyOf(lastNames, cap);
+        }
+    }
+}
@@ -1,48 +1,64 @@
 package com.company.organalyzer.service;
 
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
 import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
 
 import java.util.*;
 
 public class EmployeeRepository {
 
-    private final Map<Long, Employee> byId = new LinkedHashMap<>();
-    private final Map<Long, List<Employee>> subordinates = new HashMap<>();
+    private final Map<Long, Employee> byId;
+    private final Map<Long, List<Employee>> subordinates;
 
-    private final List<String> invalidManagers = new ArrayList<>();
-    private final List<String> duplicateIds = new ArrayList<>();
+    private final List<String> invalidManagers;
+    private final List<Long> duplicates;
 
     private final Employee ceo;
 
     public EmployeeRepository(List<Employee> employees) {
+        this(collect(employees));
+    }
 
-        Set<Long> seen = new HashSet<>();
-
-        for (Employee e : employees) {
-            if (seen.contains(e.id())) {
-                duplicateIds.add("Duplicate employee ID: " + e.id());
-            }
-            seen.add(e.id());
-            byId.put(e.id(), e);
-        }
+    private EmployeeRepository(Builder builder) {
+        byId = builder.byId;
+        subordinates = new HashMap<>();
+        invalidManagers = new ArrayList<>();
+        duplicates = builder.duplicates;
 
+        Employee firstCeo = null;
         for (Employee e : byId.values()) {
-            if (e.managerId() != null) {
-                if (!byId.containsKey(e.managerId())) {
-                    invalidManagers.add("Employee " + e.id() +
-                            " references missing manager ID: " + e.managerId());
-                    continue;
-                }
-                subordinates.computeIfAbsent(e.managerId(), k -> new ArrayList<>()).add(e);
+            if (e.managerId() == null) {
+                if (firstCeo == null) firstCeo = e;
+                continue;
+            }
+            if (!byId.containsKey(e.managerId())) {
+                invalidManagers.add(new Finding.InvalidManager(e.id(), e.managerId()).message());
+                continue;
             }
+            subordinates.computeIfAbsent(e.managerId(), k -> new ArrayList<>()).add(e);
         }
+        ceo = firstCeo;
+    }
 
-        ceo = byId.values().stream()
-                .filter(e -> e.managerId() == null)
-                .findFirst()
-                .orElse(null);
+    // For backends that keep their own indexes and override the accessors below.
+    EmployeeRepository(List<String> invalidManagers, List<Long> duplicates) {
+        this.byId = Map.of();
+        this.subordinates = Map.of();
+        this.invalidManagers = invalidManagers;
+        this.duplicates = duplicates;
+        this.ceo = null;
     }
 
+    private static Builder collect(List<Employee> employees) {
+        Builder builder = new Builder();
+        employees.forEach(builder::add);
+        return builder;
+    }
+
+    public static Builder builder() { return new Builder(); }
+
     public Employee getCeo() { return ceo; }
     public Map<Long, Employee> allById() { return byId; }
     public Collection<Employee> allEmployees() { return byId.values(); }
@@ -52,5 +68,49 @@ public class EmployeeRepository {
     }
 
     public List<String> getInvalidManagers() { return invalidManagers; }
-    public List<String> getDuplicateIds() { return duplicateIds; }
+    public List<String> getDuplicateIds() { return duplicateMessages; }
+
+    // Every id read more than once, once per repeated row, in the order the repeats were read.
+    public List<Long> getDuplicates() { return duplicates; }
+
+    private final List<String> duplicateMessages = new AbstractList<>() {
+        @Override public String get(int k) { return new Finding.DuplicateId(duplicates.get(k)).message(); }
+        @Override public int size() { return duplicates.size(); }
+    };
+
+    // Accepts employees as they are parsed; manager links are only resolved in build(),
+    // once every id is known.
+    public static final class Builder {
+
+        private final Map<Long, Employee> byId = new LinkedHashMap<>();
+        private final List<Long> duplicates = new ArrayList<>();
+        private int added;
+        private boolean built;
+
+        private Builder() {}
+
+        public Builder add(Employee e) {
+            if (built) throw new IllegalStateException("Repository already built");
+            added++;
+            if (byId.put(e.id(), e) != null) {
+                duplicates.add(e.id());
+            }
+            return this;
+        }
+
+        public int added() { return added; }
+
+        public EmployeeRepository build() {
+            if (built) throw new IllegalStateException("Repository already built");
+            built = true;
+            try (Stage stage = Metrics.stage("repository")) {
+                var repo = new EmployeeRepository(this);
+                stage.rows(repo.byId.size());
+                Metrics.peak("employees", repo.byId.size());
+                Metrics.peak("invalidManagers", repo.invalidManagers.size());
+                Metrics.peak("duplicateIds", repo.duplicates.size());
+                return repo;
+            }
+        }
+    }
 }
@@ -0,0 +1,538 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.SalaryBand;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/*
+ * Analyzes a CSV too large for the heap. The file is read once; every later step is a
+ * sequential pass or an external sort over fixed-width spill records, so the passes stay
+ * within the budget however many rows there are:
+ *
+ *   parse     rows sorted by (id, row); a duplicate id keeps its first position and the
+ *             data of its last row, as in the in-memory builders
+ *   join      employees sorted by (manager id, position) meet the sorted ids: each group
+ *             gives its manager's subordinate salary total in cents and head count, and
+ *             its members' parent position
+ *   depth     pointer doubling: each round every employee jumps to its ancestor's ancestor,
+ *             so O(log depth) rounds of sorting reach the top of every chain
+ *   findings  one pass in position order applies the salary and depth checks
+ *
+ * Employees whose chain never reaches a top are on or under a cycle. What the report lists
+ * is held in memory on top of the budget: the findings, parse errors, invalid manager
+ * references, duplicate ids, and the employees on or under a cycle. So memory grows with
+ * the number of flagged employees and data issues, not with the org. The report equals
+ * OrganizationAnalyzer's for the standard underpaid, overpaid and depth rules; its counts
+ * are ints, so a file with more rows than that is rejected while it is parsed.
+ */
+public final class ExternalAnalyzer {
+
+    public static final long DEFAULT_BUDGET = 512L << 20;
+    static final long MIN_BUDGET = 1L << 20;
+
+    private static final long NONE = ColumnarEmployeeRepository.NONE;
+    private static final long NO_MANAGER = ColumnarEmployeeRepository.NO_MANAGER;
+
+    private final long budget;
+    private final Path tempDir;
+    private final AnalysisThresholds thresholds;
+
+    public ExternalAnalyzer(long budget, Path tempDir) {
+        this(budget, tempDir, AnalysisThresholds.DEFAULTS);
+    }
+
+    public ExternalAnalyzer(long budget, Path tempDir, AnalysisThresholds thresholds) {
+        if (budget < MIN_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_BUDGET + " bytes: " + budget);
+        }
+        this.budget = budget;
+        this.tempDir = tempDir;
+        this.thresholds = thresholds;
+    }
+
+    public AnalysisReport analyze(Path csv) throws IOException {
+        Path dir = Files.createTempDirectory(tempDir, "org-spill");
+        try {
+            return new Job(dir, false).run(csv);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /*
+     * The report, plus what SnapshotDiff's merge-join needs so it does not parse the file
+     * again. byId has one [id, position, manager id, salary, name row] record per employee,
+     * sorted by id, and duplicates are already collapsed. csv gives back names by row. Both
+     * stay in dir, which the caller deletes.
+     */
+    record Spilled(AnalysisReport report, SpilledCsv csv, SpillFile byId) {}
+
+    Spilled analyzeKeeping(Path csv, Path dir) throws IOException {
+        Job job = new Job(dir, true);
+        AnalysisReport report = job.run(csv);
+        return new Spilled(report, job.csv, job.byId);
+    }
+
+    static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    // Name interning gets about a thousandth of the budget.
+    static int maxNames(long budget) {
+        return (int) Math.min(Integer.MAX_VALUE, budget >> 10);
+    }
+
+    // A flagged employee, before names are looked up.
+    private record Flagged(long pos, long id, long managerId, double salary, long nameRow, double amount) {}
+
+    private final class Job {
+
+        private final Path dir;
+        // at most three sorters are filling or draining at the same time
+        private final long sortBytes = budget / 4;
+
+        private SpilledCsv csv;
+        private final SpillFile byId;                               // null unless kept for a diff
+        private final List<long[]> duplicates = new ArrayList<>();  // row, id
+        private final List<long[]> invalid = new ArrayList<>();     // position, id, manager id
+        private long size;
+        private long ceo = NONE;
+        private long pending;
+
+        Job(Path dir, boolean keepById) throws IOException {
+            this.dir = dir;
+            this.byId = keepById ? SpillFile.create(dir, 5) : null;
+        }
+
+        private ExternalSorter sorter(int width, int keys) {
+            return new ExternalSorter(dir, width, keys, sortBytes);
+        }
+
+        AnalysisReport run(Path file) throws IOException {
+            // parse: [id, row, manager id, salary] by (id, row); names go to their own file by row
+            csv = SpilledCsv.parse(file, dir, sortBytes, maxNames(budget), "external.parse");
+            if (csv.rows + csv.errors.size() > Integer.MAX_VALUE) throw SpilledCsv.tooManyRows(file);
+            SpillFile ids = SpillFile.create(dir, 2);
+            ExternalSorter byManager = dedupe(csv.byId, ids);
+            SpillFile nodes = join(byManager, ids);
+            SpillFile reach = depth(nodes);
+            AnalysisReport report = findings(nodes, reach);
+            nodes.delete();
+            reach.delete();
+            return report;
+        }
+
+        // ---- dedupe: ids [id, position]; employees [manager id, position, salary, id, name row] ----
+
+        private ExternalSorter dedupe(ExternalSorter rows, SpillFile ids) throws IOException {
+            ExternalSorter byManager = sorter(5, 2);
+            long[] r = new long[4];
+            long[] id = new long[2];
+            long[] e = new long[5];
+            long[] kept = new long[5];
+            try (Stage stage = Metrics.stage("external.dedupe");
+                 ExternalSorter.Cursor in = rows.sorted(); SpillFile.Writer out = ids.writer();
+                 SpillFile.Writer keep = byId == null ? null : byId.writer()) {
+                boolean more = in.next(r);
+                while (more) {
+                    e[3] = r[0];
+                    e[1] = r[1];
+                    do {
+                        if (r[1] != e[1]) duplicates.add(new long[] {r[1], r[0]});
+                        e[0] = r[2];
+                        e[2] = r[3];
+                        e[4] = r[1];
+                    } while ((more = in.next(r)) && r[0] == e[3]);
+
+                    id[0] = e[3];
+                    id[1] = e[1];
+                    out.write(id);
+                    byManager.add(e);
+                    if (keep != null) {
+                        kept[0] = e[3];
+                        kept[1] = e[1];
+                        kept[2] = e[0];
+                        kept[3] = e[2];
+                        kept[4] = e[4];
+                        keep.write(kept);
+                    }
+                    size++;
+                }
+                stage.rows(size);
+            }
+            duplicates.sort(Comparator.comparingLong(d -> d[0]));
+            return byManager;
+        }
+
+        // ---- join: nodes [position, id, manager id, salary, name row, parent, subordinate cents, count, average] ----
+
+        private SpillFile join(ExternalSorter byManager, SpillFile ids) throws IOException {
+            ExternalSorter members = sorter(6, 1);      // position, id, manager id, salary, name row, parent
+            ExternalSorter totals = sorter(4, 1);       // manager position, subordinate cents, count, average
+            long[] c = new long[5];
+            long[] m = new long[2];
+            long[] node = new long[6];
+            long[] total = new long[4];
+            Average average = new Average();
+
+            try (Stage stage = Metrics.stage("external.join");
+                 ExternalSorter.Cursor in = byManager.sorted(); SpillFile.Reader managers = ids.reader()) {
+                boolean moreManagers = managers.next(m);
+                boolean more = in.next(c);
+                while (more) {
+                    long mgr = c[0];
+                    while (moreManagers && m[0] < mgr) moreManagers = managers.next(m);
+                    long parent = mgr != NO_MANAGER && moreManagers && m[0] == mgr ? m[1] : NONE;
+
+                    long cents = 0;
+                    long count = 0;
+                    average.reset();
+                    do {
+                        if (mgr == NO_MANAGER) {
+                            if (ceo == NONE) ceo = c[1];
+                        } else if (parent == NONE) {
+                            invalid.add(new long[] {c[1], c[3], mgr});
+                        } else {
+                            double salary = Double.longBitsToDouble(c[2]);
+                            cents = ColumnarEmployeeRepository.addCents(cents, ColumnarEmployeeRepository.toCents(salary));
+                            average.add(salary);
+                            count++;
+                        }
+                        node[0] = c[1];
+                        node[1] = c[3];
+                        node[2] = mgr;
+                        node[3] = c[2];
+                        node[4] = c[4];
+                        node[5] = parent;
+                        members.add(node);
+                    } while ((more = in.next(c)) && c[0] == mgr);
+
+                    if (parent != NONE) {
+                        total[0] = parent;
+                        total[1] = cents;
+                        total[2] = count;
+                        total[3] = Double.doubleToRawLongBits(average.value(count));
+                        totals.add(total);
+                    }
+                }
+                stage.rows(size);
+            }
+            ids.delete();
+            invalid.sort(Comparator.comparingLong(v -> v[0]));
+
+            SpillFile nodes = SpillFile.create(dir, 9);
+            long[] a = new long[4];
+            long[] out = new long[9];
+            try (ExternalSorter.Cursor byPos = members.sorted(); ExternalSorter.Cursor sums = totals.sorted();
+                 SpillFile.Writer w = nodes.writer()) {
+                boolean moreTotals = sums.next(a);
+                while (byPos.next(out)) {
+                    boolean has = moreTotals && a[0] == out[0];
+                    out[6] = has ? a[1] : 0;
+                    out[7] = has ? a[2] : 0;
+                    out[8] = has ? a[3] : Double.doubleToRawLongBits(Double.NaN);
+                    if (has) moreTotals = sums.next(a);
+                    w.write(out);
+                }
+            }
+            return nodes;
+        }
+
+        // ---- depth: reach [position, ancestor, distance, done] by position ----
+
+        private SpillFile depth(SpillFile nodes) throws IOException {
+            SpillFile table = SpillFile.create(dir, 4);
+            long[] node = new long[9];
+            long[] t = new long[4];
+            try (Stage stage = Metrics.stage("external.depth")) {
+                try (SpillFile.Reader in = nodes.reader(); SpillFile.Writer out = table.writer()) {
+                    while (in.next(node)) {
+                        boolean top = node[5] == NONE;
+                        t[0] = node[0];
+                        t[1] = top ? node[0] : node[5];
+                        t[2] = top ? 0 : 1;
+                        t[3] = top ? 1 : 0;
+                        if (!top) pending++;
+                        out.write(t);
+                    }
+                }
+
+                // after k rounds a pending employee points 2^k levels up; no finite chain is longer than size
+                for (long span = 1; pending > 0 && span < size; span *= 2) {
+                    SpillFile next = round(table);
+                    table.delete();
+                    table = next;
+                }
+                stage.rows(size);
+            }
+            return table;
+        }
+
+        private SpillFile round(SpillFile table) throws IOException {
+            ExternalSorter jumps = sorter(3, 1);        // ancestor, position, distance
+            SpillFile done = SpillFile.create(dir, 4);
+            long[] t = new long[4];
+            long[] j = new long[3];
+            try (SpillFile.Reader in = table.reader(); SpillFile.Writer out = done.writer()) {
+                while (in.next(t)) {
+                    if (t[3] == 1) {
+                        out.write(t);
+                    } else {
+                        j[0] = t[1];
+                        j[1] = t[0];
+                        j[2] = t[2];
+                        jumps.add(j);
+                    }
+                }
+            }
+
+            ExternalSorter moved = sorter(4, 1);
+            long[] m = new long[4];
+            pending = 0;
+            try (ExternalSorter.Cursor in = jumps.sorted(); SpillFile.Reader ancestors = table.reader()) {
+                ancestors.next(t);
+                while (in.next(j)) {
+                    while (t[0] < j[0]) ancestors.next(t);
+                    m[0] = j[1];
+                    m[1] = t[1];
+                    m[2] = j[2] + t[2];
+                    m[3] = t[3];
+                    if (m[3] == 0) pending++;
+                    moved.add(m);
+                }
+            }
+
+            SpillFile next = SpillFile.create(dir, 4);
+            long[] d = new long[4];
+            try (SpillFile.Reader a = done.reader(); ExternalSorter.Cursor b = moved.sorted();
+                 SpillFile.Writer out = next.writer()) {
+                boolean moreA = a.next(d);
+                boolean moreB = b.next(m);
+                while (moreA || moreB) {
+                    if (moreA && (!moreB || d[0] < m[0])) {
+                        out.write(d);
+                        moreA = a.next(d);
+                    } else {
+                        out.write(m);
+                        moreB = b.next(m);
+                    }
+                }
+            }
+            done.delete();
+            return next;
+        }
+
+        // ---- findings ----
+
+        private AnalysisReport findings(SpillFile nodes, SpillFile reach) throws IOException {
+            List<Flagged> underpaid = new ArrayList<>();
+            List<Flagged> overpaid = new ArrayList<>();
+            List<Flagged> deep = new ArrayList<>();
+            LongList cyclePos = new LongList();
+            LongList cycleParent = new LongList();
+            LongList cycleId = new LongList();
+
+            long[] n = new long[9];
+            long[] t = new long[4];
+            try (Stage stage = Metrics.stage("external.findings");
+                 SpillFile.Reader in = nodes.reader(); SpillFile.Reader r = reach.reader()) {
+                while (in.next(n) && r.next(t)) {
+                    long pos = n[0];
+                    double salary = Double.longBitsToDouble(n[3]);
+
+                    if (t[3] == 0) {
+                        cyclePos.add(pos);
+                        cycleParent.add(n[5]);
+                        cycleId.add(n[1]);
+                    }
+
+                    long cents = ColumnarEmployeeRepository.toCents(salary);
+                    boolean exact = SalaryBand.exact(cents, n[6]);
+                    double average = Double.longBitsToDouble(n[8]);
+                    double shortfall = exact
+                            ? SalaryBand.shortfall(cents, n[6], n[7], thresholds.minMultiplier())
+                            : SalaryBand.shortfall(salary, average, thresholds.minMultiplier());
+                    if (!Double.isNaN(shortfall)) underpaid.add(new Flagged(pos, n[1], n[2], salary, n[4], shortfall));
+                    double excess = exact
+                            ? SalaryBand.excess(cents, n[6], n[7], thresholds.maxMultiplier())
+                            : SalaryBand.excess(salary, average, thresholds.maxMultiplier());
+                    if (n[2] != NO_MANAGER && !Double.isNaN(excess)) {
+                        overpaid.add(new Flagged(pos, n[1], n[2], salary, n[4], excess));
+                    }
+                    long depth = t[3] == 1 && t[1] == ceo ? t[2] : HierarchyEngine.UNREACHABLE;
+                    if (depth > thresholds.maxDepth()) {
+                        deep.add(new Flagged(pos, n[1], n[2], salary, n[4], depth - thresholds.maxDepth()));
+                    }
+                }
+                stage.rows(size);
+            }
+
+            Cycles cycles = new Cycles(cyclePos.toArray(), cycleParent.toArray(), cycleId.toArray());
+            underpaid.removeIf(f -> cycles.contains(f.pos()));
+            overpaid.removeIf(f -> cycles.contains(f.pos()));
+            deep.removeIf(f -> cycles.contains(f.pos()));
+
+            Map<Long, String[]> named = names(underpaid, overpaid, deep);
+            Map<Employee, Double> underpaidMap = new LinkedHashMap<>();
+            Map<Employee, Double> overpaidMap = new LinkedHashMap<>();
+            Map<Employee, Integer> deepMap = new LinkedHashMap<>();
+            for (Flagged f : underpaid) underpaidMap.put(employee(f, named), f.amount());
+            for (Flagged f : overpaid) overpaidMap.put(employee(f, named), f.amount());
+            for (Flagged f : deep) deepMap.put(employee(f, named), (int) f.amount());
+
+            List<String> invalidManagers = new ArrayList<>(invalid.size());
+            for (long[] v : invalid) {
+                invalidManagers.add(new Finding.InvalidManager(v[1], v[2]).message());
+            }
+            List<String> duplicateIds = new ArrayList<>(duplicates.size());
+            for (long[] d : duplicates) duplicateIds.add(new Finding.DuplicateId(d[1]).message());
+
+            // at most one entry per line read, and parse() checked those fit an int
+            int invalidEntries = csv.errors.size() + invalidManagers.size() + duplicateIds.size();
+            return new AnalysisReport(underpaidMap, overpaidMap, deepMap, invalidManagers, duplicateIds,
+                    cycles.circularRefs, cycles.cutOff, (int) csv.rows, invalidEntries, thresholds.maxDepth());
+        }
+
+        // Reads the names of flagged employees in one pass over the names file.
+        @SafeVarargs
+        private Map<Long, String[]> names(List<Flagged>... flagged) throws IOException {
+            LongList wanted = new LongList();
+            for (List<Flagged> list : flagged) for (Flagged f : list) wanted.add(f.nameRow());
+            return csv.names(wanted.toArray());
+        }
+
+        private static Employee employee(Flagged f, Map<Long, String[]> named) {
+            String[] name = named.get(f.nameRow());
+            return new Employee(f.id(), name[0], name[1], f.salary(),
+                    f.managerId() == NO_MANAGER ? null : f.managerId());
+        }
+    }
+
+    /*
+     * The same walk as HierarchyEngine, over only the employees that never reached a top,
+     * so cycles come out in the same order, rotated the same way, and every employee under
+     * a cycle is attributed to the same one.
+     */
+    private static final class Cycles {
+
+        final List<String> circularRefs = new ArrayList<>();
+        final List<String> cutOff = new ArrayList<>();
+        private final long[] pos;
+        private final boolean[] inCycle;
+
+        Cycles(long[] pos, long[] parentPos, long[] ids) {
+            this.pos = pos;
+            int n = pos.length;
+            inCycle = new boolean[n];
+            int[] parent = new int[n];
+            for (int i = 0; i < n; i++) parent[i] = Arrays.binarySearch(pos, parentPos[i]);
+
+            int[] cycleOf = new int[n];
+            byte[] state = new byte[n];     // 0 new, 1 on path, 2 done
+            int[] path = new int[Math.max(1, n)];
+            List<Finding.CircularChain> chains = new ArrayList<>();
+
+            for (int i = 0; i < n; i++) {
+                if (state[i] != 0) continue;
+                int len = 0;
+                int cur = i;
+                while (state[cur] == 0) {
+                    state[cur] = 1;
+                    path[len++] = cur;
+                    cur = parent[cur];
+                }
+
+                int cycle;
+                if (state[cur] == 1) {
+                    int start = len - 1;
+                    while (path[start] != cur) start--;
+                    int first = start;
+                    for (int k = start + 1; k < len; k++) if (path[k] < path[first]) first = k;
+
+                    cycle = chains.size();
+                    List<Long> chain = new ArrayList<>(len - start);
+                    for (int k = 0; k < len - start; k++) {
+                        int m = path[start + (first - start + k) % (len - start)];
+                        inCycle[m] = true;
+                        cycleOf[m] = cycle;
+                        state[m] = 2;
+                        chain.add(ids[m]);
+                    }
+                    Finding.CircularChain found = new Finding.CircularChain(chain);
+                    chains.add(found);
+                    circularRefs.add(found.message());
+                    len = start;
+                } else {
+                    cycle = cycleOf[cur];
+                }
+                for (int k = 0; k < len; k++) {
+                    cycleOf[path[k]] = cycle;
+                    state[path[k]] = 2;
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (!inCycle[i]) {
+                    cutOff.add(new Finding.CutOff(ids[i], chains.get(cycleOf[i])).message());
+                }
+            }
+        }
+
+        boolean contains(long position) {
+            int i = Arrays.binarySearch(pos, position);
+            return i >= 0 && inCycle[i];
+        }
+    }
+
+    // The compensated summation of HierarchyEngine.subordinateAverage, for the floating-point
+    // fallback when a total does not fit in cents; salaries arrive in the same position order.
+    private static final class Average {
+        private double sum;
+        private double compensation;
+        private double simpleSum;
+
+        void reset() {
+            sum = 0;
+            compensation = 0;
+            simpleSum = 0;
+        }
+
+        void add(double v) {
+            double y = v - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+            simpleSum += v;
+        }
+
+        double value(long count) {
+            double total = sum - compensation;
+            if (Double.isNaN(total) && Double.isInfinite(simpleSum)) total = simpleSum;
+            return total / count;
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        long[] toArray() { return Arrays.copyOf(values, size); }
+    }
+}
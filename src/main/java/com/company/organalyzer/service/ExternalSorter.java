@@ -0,0 +1,182 @@
+package com.company.organalyzer.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * Sorts fixed-width records of longs by their first `keys` columns within a memory limit.
+ * Records are buffered until the limit is reached, sorted and spilled as a run; sorted()
+ * merges the runs, at most fanIn at a time, so each merge pass keeps only one read buffer
+ * per run. The sort is stable: records with equal keys come out in the order they were added.
+ * Input that fits the limit is never written to disk.
+ */
+final class ExternalSorter {
+
+    interface Cursor extends AutoCloseable {
+        // Copies the next record into rec; false at the end.
+        boolean next(long[] rec) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final Path dir;
+    private final int width;
+    private final int keys;
+    private final int capacity;     // records per run
+    private final int fanIn;
+
+    private long[] buf;
+    private int count;
+    private final List<SpillFile> runs = new ArrayList<>();
+    private boolean sorted;
+
+    ExternalSorter(Path dir, int width, int keys, long bytes) {
+        this.dir = dir;
+        this.width = width;
+        this.keys = keys;
+        // the buffer may briefly exist twice while growing; the sort adds two ints per record
+        this.capacity = (int) Math.max(16, Math.min(Integer.MAX_VALUE / width, bytes * 2 / 3 / (width * 8L + 8)));
+        this.fanIn = (int) Math.max(2, bytes / (2L * SpillFile.BUFFER_BYTES));
+        this.buf = new long[Math.min(capacity, 1024) * width];
+    }
+
+    void add(long[] rec) throws IOException {
+        if (sorted) throw new IllegalStateException("Sorter already read");
+        if (count == capacity) spill();
+        if ((count + 1) * width > buf.length) buf = Arrays.copyOf(buf, Math.min(capacity, count * 2) * width);
+        System.arraycopy(rec, 0, buf, count * width, width);
+        count++;
+    }
+
+    Cursor sorted() throws IOException {
+        if (sorted) throw new IllegalStateException("Sorter already read");
+        sorted = true;
+
+        if (runs.isEmpty()) return inMemory(order());
+
+        if (count > 0) spill();
+        buf = null;
+        List<SpillFile> level = new ArrayList<>(runs);
+        while (level.size() > fanIn) {
+            List<SpillFile> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += fanIn) {
+                List<SpillFile> group = level.subList(from, Math.min(level.size(), from + fanIn));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+                SpillFile merged = SpillFile.create(dir, width);
+                try (Cursor in = merge(group); SpillFile.Writer out = merged.writer()) {
+                    long[] rec = new long[width];
+                    while (in.next(rec)) out.write(rec);
+                }
+                next.add(merged);
+            }
+            level = next;
+        }
+        return merge(level);
+    }
+
+    private void spill() throws IOException {
+        int[] order = order();
+        SpillFile run = SpillFile.create(dir, width);
+        try (SpillFile.Writer out = run.writer()) {
+            long[] rec = new long[width];
+            for (int i : order) {
+                System.arraycopy(buf, i * width, rec, 0, width);
+                out.write(rec);
+            }
+        }
+        runs.add(run);
+        count = 0;
+    }
+
+    // ---- in-memory sort ----
+
+    // Record numbers in key order; a bottom-up merge sort, so equal keys keep their order.
+    private int[] order() {
+        int[] a = new int[count];
+        for (int i = 0; i < count; i++) a[i] = i;
+        int[] b = new int[count];
+        for (int len = 1; len < count; len *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * len) {
+                int mid = Math.min(count, lo + len);
+                int hi = Math.min(count, lo + 2 * len);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) b[k++] = compare(buf, a[i] * width, buf, a[j] * width) <= 0 ? a[i++] : a[j++];
+                while (i < mid) b[k++] = a[i++];
+                while (j < hi) b[k++] = a[j++];
+            }
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private int compare(long[] x, int xOff, long[] y, int yOff) {
+        for (int k = 0; k < keys; k++) {
+            int c = Long.compare(x[xOff + k], y[yOff + k]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private Cursor inMemory(int[] order) {
+        return new Cursor() {
+            int next;
+
+            @Override
+            public boolean next(long[] rec) {
+                if (next == order.length) return false;
+                System.arraycopy(buf, order[next++] * width, rec, 0, width);
+                return true;
+            }
+
+            @Override
+            public void close() {
+                buf = null;
+            }
+        };
+    }
+
+    // ---- merging runs ----
+
+    private record Head(SpillFile.Reader reader, long[] rec, int seq) {}
+
+    // Merges the runs in order and deletes them once the cursor is closed.
+    private Cursor merge(List<SpillFile> group) throws IOException {
+        PriorityQueue<Head> heads = new PriorityQueue<>((x, y) -> {
+            int c = compare(x.rec(), 0, y.rec(), 0);
+            return c != 0 ? c : Integer.compare(x.seq(), y.seq());
+        });
+        List<SpillFile> owned = List.copyOf(group);
+        for (int s = 0; s < owned.size(); s++) {
+            var reader = owned.get(s).reader();
+            long[] rec = new long[width];
+            if (reader.next(rec)) heads.add(new Head(reader, rec, s));
+            else reader.close();
+        }
+
+        return new Cursor() {
+            @Override
+            public boolean next(long[] rec) throws IOException {
+                Head h = heads.poll();
+                if (h == null) return false;
+                System.arraycopy(h.rec(), 0, rec, 0, width);
+                if (h.reader().next(h.rec())) heads.add(h);
+                else h.reader().close();
+                return true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (Head h : heads) h.reader().close();
+                heads.clear();
+                for (SpillFile run : owned) run.delete();
+            }
+        };
+    }
+}
@@ -0,0 +1,205 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+
+/*
+ * Cycle detection, depth from the CEO and subordinate salary averages in one linear,
+ * iterative pass over a columnar org. Every employee is walked up its manager chain at
+ * most once; the walk uses an explicit path array instead of recursion, so stack usage
+ * stays constant however deep the hierarchy is. Each distinct cycle is found exactly
+ * once, and employees whose chain runs into a cycle are tagged with that cycle.
+ */
+public final class HierarchyEngine {
+
+    public static final int UNREACHABLE = -1;
+    public static final int NO_CYCLE = -1;
+
+    private static final byte NEW = 0;
+    private static final byte ON_PATH = 1;
+    private static final byte DONE = 2;
+
+    private HierarchyEngine() {}
+
+    public static Result run(ColumnarEmployeeRepository org) {
+        return run(org, true);
+    }
+
+    // Without averages only cycles and depths are computed; callers can then use
+    // subordinateAverage(org, i) themselves, e.g. split across threads.
+    public static Result run(ColumnarEmployeeRepository org, boolean averages) {
+        try (Stage stage = Metrics.stage("hierarchy")) {
+            Result result = walk(org, averages);
+            stage.rows(org.size());
+            Metrics.peak("cycles", result.cycles().size());
+            return result;
+        }
+    }
+
+    /*
+     * Nothing is walked up front: depth(i), inCycle(i) and cycleOf(i) walk i's manager chain
+     * the first time they are asked, and remember the answer for every employee on the way.
+     * A point query costs O(depth) once and O(1) after that. cycles() holds only the cycles
+     * found so far, and the result is not thread-safe until every employee has been resolved.
+     */
+    public static Result lazy(ColumnarEmployeeRepository org) {
+        return new Result(org, null);
+    }
+
+    private static Result walk(ColumnarEmployeeRepository org, boolean averages) {
+        int n = org.size();
+        Result result = new Result(org, averages ? new double[n] : null);
+        for (int i = 0; i < n; i++) {
+            result.resolve(i);
+            if (averages) result.average[i] = subordinateAverage(org, i);
+        }
+        result.resolved();
+        return result;
+    }
+
+    // Rotates a cycle so it starts at its first-seen member; the order stays the reporting order.
+    private static int[] canonical(int[] members) {
+        int first = 0;
+        for (int k = 1; k < members.length; k++) {
+            if (members[k] < members[first]) first = k;
+        }
+        if (first == 0) return members;
+
+        int[] rotated = new int[members.length];
+        for (int k = 0; k < members.length; k++) {
+            rotated[k] = members[(first + k) % members.length];
+        }
+        return rotated;
+    }
+
+    // Same compensated summation as DoubleStream.average().
+    // NaN for employees without subordinates.
+    public static double subordinateAverage(ColumnarEmployeeRepository org, int i) {
+        int from = org.childStart(i);
+        int to = org.childEnd(i);
+        if (from == to) return Double.NaN;
+
+        double sum = 0;
+        double compensation = 0;
+        double simpleSum = 0;
+        for (int k = from; k < to; k++) {
+            double v = org.salary(org.child(k));
+            double y = v - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+            simpleSum += v;
+        }
+        double total = sum - compensation;
+        if (Double.isNaN(total) && Double.isInfinite(simpleSum)) total = simpleSum;
+        return total / (to - from);
+    }
+
+    public static final class Result {
+
+        private final ColumnarEmployeeRepository org;
+        private final int[] depth;
+        private final boolean[] inCycle;
+        private final int[] cycleOf;
+        private final double[] average;
+        private final List<int[]> cycles = new ArrayList<>();
+
+        // walk state, dropped once every employee is resolved
+        private byte[] state;
+        private int[] path;
+
+        private Result(ColumnarEmployeeRepository org, double[] average) {
+            int n = org.size();
+            this.org = org;
+            this.depth = new int[n];
+            this.inCycle = new boolean[n];
+            this.cycleOf = new int[n];
+            this.average = average;
+            this.state = new byte[n];
+            this.path = new int[Math.max(1, n)];
+        }
+
+        // Walks up from i to the first employee already resolved, or to the top, or around a cycle.
+        private void resolve(int i) {
+            if (state[i] != NEW) return;
+            int ceo = org.ceoIndex();
+            int len = 0;
+            int cur = i;
+            while (cur != NONE && state[cur] == NEW) {
+                state[cur] = ON_PATH;
+                path[len++] = cur;
+                cur = org.parent(cur);
+            }
+
+            // depth to give path[len - 1]; each step down the path adds one level
+            int next;
+            int cycle = NO_CYCLE;
+            if (cur == NONE) {
+                next = path[len - 1] == ceo ? 0 : UNREACHABLE;
+            } else if (state[cur] == ON_PATH) {
+                int start = len - 1;
+                while (path[start] != cur) start--;
+                cycle = cycles.size();
+                int[] members = canonical(Arrays.copyOfRange(path, start, len));
+                for (int m : members) {
+                    inCycle[m] = true;
+                    cycleOf[m] = cycle;
+                    depth[m] = UNREACHABLE;
+                    state[m] = DONE;
+                }
+                cycles.add(members);
+                len = start;
+                next = UNREACHABLE;
+            } else {
+                next = depth[cur] == UNREACHABLE ? UNREACHABLE : depth[cur] + 1;
+                cycle = cycleOf[cur];
+            }
+
+            for (int k = len - 1; k >= 0; k--) {
+                depth[path[k]] = next;
+                cycleOf[path[k]] = cycle;
+                state[path[k]] = DONE;
+                if (next != UNREACHABLE) next++;
+            }
+        }
+
+        private void resolved() {
+            state = null;
+            path = null;
+        }
+
+        private int at(int i) {
+            if (state != null) resolve(i);
+            return i;
+        }
+
+        // Levels below the CEO, or UNREACHABLE when the chain never reaches the CEO.
+        public int depth(int i) { return depth[at(i)]; }
+
+        public boolean inCycle(int i) { return inCycle[at(i)]; }
+
+        // True for employees outside every cycle whose manager chain runs into one.
+        public boolean cutOffByCycle(int i) { return !inCycle[at(i)] && cycleOf[i] != NO_CYCLE; }
+
+        // Position in cycles() of the cycle the employee is on or hangs under, else NO_CYCLE.
+        public int cycleOf(int i) { return cycleOf[at(i)]; }
+
+        public boolean hasAverages() { return average != null; }
+
+        // NaN for employees without subordinates.
+        public double subordinateAverage(int i) {
+            if (average == null) throw new IllegalStateException("Averages were not computed");
+            return average[i];
+        }
+
+        // Each cycle's members in reporting order, starting from the member seen first. A lazy
+        // result lists only the cycles its queries have run into.
+        public List<int[]> cycles() { return cycles; }
+    }
+}
@@ -0,0 +1,160 @@
+package com.company.organalyzer.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+
+/*
+ * Precomputed ancestor queries over the reporting forest: the CEO's tree plus the trees
+ * hanging under employees whose manager is missing. Built once in O(n) time and memory.
+ *
+ * Each employee keeps its manager and one jump pointer (Myers' skew-binary scheme): jumps
+ * are laid out so that any ancestor is reached in O(log depth) hops. An Euler tour gives
+ * every employee an interval [tin, tout) that contains exactly their reports, so "is A above
+ * B" is O(1). Lowest common manager lifts both employees to the same level and then jumps
+ * them up together, also in O(log depth).
+ *
+ * Employees on or under a circular chain have no place in the forest; ancestor queries
+ * for them return NONE, and chain() lists the loop once.
+ */
+public final class HierarchyIndex {
+
+    private final ColumnarEmployeeRepository org;
+    private final int[] level;      // levels below the top of the employee's tree, NONE if not indexed
+    private final int[] jump;
+    private final int[] tin;
+    private final int[] tout;
+
+    private HierarchyIndex(ColumnarEmployeeRepository org) {
+        this.org = org;
+        int n = org.size();
+        level = new int[n];
+        jump = new int[n];
+        tin = new int[n];
+        tout = new int[n];
+        Arrays.fill(level, NONE);
+        Arrays.fill(tin, NONE);
+        Arrays.fill(tout, NONE);
+
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        int timer = 0;
+
+        for (int r = 0; r < n; r++) {
+            if (org.parent(r) != NONE) continue;
+
+            level[r] = 0;
+            jump[r] = r;
+            tin[r] = timer++;
+            int top = 0;
+            stack[0] = r;
+            cursor[r] = org.childStart(r);
+
+            while (top >= 0) {
+                int v = stack[top];
+                if (cursor[v] < org.childEnd(v)) {
+                    int c = org.child(cursor[v]++);
+                    level[c] = level[v] + 1;
+                    jump[c] = jumpFor(v);
+                    tin[c] = timer++;
+                    cursor[c] = org.childStart(c);
+                    stack[++top] = c;
+                } else {
+                    tout[v] = timer;
+                    top--;
+                }
+            }
+        }
+    }
+
+    public static HierarchyIndex build(EmployeeRepository repo) {
+        return new HierarchyIndex(ColumnarEmployeeRepository.of(repo));
+    }
+
+    // Jump from a new child of p: two equal-length jumps above p merge into one twice as long.
+    private int jumpFor(int p) {
+        int j = jump[p];
+        int jj = jump[j];
+        return level[p] - level[j] == level[j] - level[jj] ? jj : p;
+    }
+
+    public ColumnarEmployeeRepository org() { return org; }
+
+    // False for employees on or under a circular chain.
+    public boolean indexed(int i) { return level[i] != NONE; }
+
+    // Levels below the CEO, or HierarchyEngine.UNREACHABLE when the CEO is not above the employee.
+    public int depth(int i) {
+        int ceo = org.ceoIndex();
+        return ceo != NONE && isAbove(ceo, i) ? level[i] : HierarchyEngine.UNREACHABLE;
+    }
+
+    // Euler tour: i's reports occupy positions (enter(i), exit(i)) in visiting order.
+    int enter(int i) { return tin[i]; }
+    int exit(int i) { return tout[i]; }
+
+    // True when a is b or one of b's managers, at any distance.
+    public boolean isAbove(int a, int b) {
+        return tin[a] != NONE && tin[b] != NONE && tin[a] <= tin[b] && tin[b] < tout[a];
+    }
+
+    // The manager k levels above i (i itself for k = 0), or NONE if the chain is shorter.
+    public int ancestor(int i, int k) {
+        if (k < 0) throw new IllegalArgumentException("Level must not be negative: " + k);
+        if (level[i] == NONE || k > level[i]) return NONE;
+        return atLevel(i, level[i] - k);
+    }
+
+    private int atLevel(int v, int target) {
+        while (level[v] > target) {
+            int j = jump[v];
+            v = level[j] >= target ? j : org.parent(v);
+        }
+        return v;
+    }
+
+    // The lowest employee that a and b both report to, counting each as above themselves;
+    // NONE when they are in different trees or either is not indexed.
+    public int lowestCommonManager(int a, int b) {
+        if (level[a] == NONE || level[b] == NONE) return NONE;
+        if (isAbove(a, b)) return a;
+        if (isAbove(b, a)) return b;
+
+        if (level[a] > level[b]) a = atLevel(a, level[b]);
+        else b = atLevel(b, level[a]);
+
+        // same level from here on, so jump[a] and jump[b] are always on the same level too
+        while (a != b) {
+            if (level[a] == 0) return NONE;
+            if (jump[a] != jump[b]) {
+                a = jump[a];
+                b = jump[b];
+            } else {
+                a = org.parent(a);
+                b = org.parent(b);
+            }
+        }
+        return a;
+    }
+
+    // i followed by each manager up to the top of the chain; around a cycle once at most.
+    public int[] chain(int i) {
+        if (level[i] != NONE) {
+            int[] chain = new int[level[i] + 1];
+            for (int k = 0, v = i; k < chain.length; k++, v = org.parent(v)) chain[k] = v;
+            return chain;
+        }
+
+        // on or under a cycle: walk until an employee repeats
+        int[] chain = new int[8];
+        int len = 0;
+        Set<Integer> seen = new HashSet<>();
+        for (int v = i; v != NONE && seen.add(v); v = org.parent(v)) {
+            if (len == chain.length) chain = Arrays.copyOf(chain, len * 2);
+            chain[len++] = v;
+        }
+        return Arrays.copyOf(chain, len);
+    }
+}
@@ -0,0 +1,378 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.model.EmployeeEvent;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.SalaryBand;
+
+import java.util.*;
+
+/*
+ * Keeps the results of OrganizationAnalyzer up to date while employees are added, removed,
+ * re-paid or moved. Each event only re-checks what it can affect: a salary change touches
+ * the employee and their manager, a manager change touches both managers and the moved
+ * subtree, and cycles are found by walking up from the new manager.
+ */
+public class IncrementalAnalyzer {
+
+    private static final int NO_DEPTH = -1;
+
+    private final AnalysisThresholds thresholds;
+
+    private final Map<Long, Node> nodes = new LinkedHashMap<>();
+    private final Map<Long, Set<Long>> children = new HashMap<>();
+    private final List<String> duplicateIds;
+
+    private final Set<Long> invalidRefs = new LinkedHashSet<>();
+    private final Set<Cycle> cycles = new LinkedHashSet<>();
+    private final Set<Long> cutOff = new LinkedHashSet<>();
+    private final Map<Long, Double> underpaid = new LinkedHashMap<>();
+    private final Map<Long, Double> overpaid = new LinkedHashMap<>();
+    private final Map<Long, Integer> deep = new LinkedHashMap<>();
+
+    private Long ceoId;
+    private long nextOrder;     // file position of the next node, as OrganizationAnalyzer would index it
+
+    public IncrementalAnalyzer(EmployeeRepository repo) {
+        this(repo, AnalysisThresholds.DEFAULTS);
+    }
+
+    public IncrementalAnalyzer(EmployeeRepository repo, AnalysisThresholds thresholds) {
+        this.thresholds = thresholds;
+        duplicateIds = new ArrayList<>(repo.getDuplicateIds());
+
+        var org = ColumnarEmployeeRepository.of(repo);
+        var hierarchy = HierarchyEngine.run(org);
+
+        List<Cycle> found = new ArrayList<>();
+        for (int[] members : hierarchy.cycles()) {
+            List<Long> ids = new ArrayList<>(members.length);
+            for (int m : members) ids.add(org.id(m));
+            found.add(new Cycle(ids));
+        }
+        cycles.addAll(found);
+
+        for (int i = 0; i < org.size(); i++) {
+            Node node = new Node(org.employee(i), nextOrder++);
+            node.depth = hierarchy.depth(i);
+            node.member = hierarchy.inCycle(i);
+            if (hierarchy.cycleOf(i) != HierarchyEngine.NO_CYCLE) node.cycle = found.get(hierarchy.cycleOf(i));
+            nodes.put(node.employee.id(), node);
+
+            Long mgr = node.employee.managerId();
+            if (mgr != null) {
+                children.computeIfAbsent(mgr, k -> new LinkedHashSet<>()).add(node.employee.id());
+                if (org.parent(i) == ColumnarEmployeeRepository.NONE) invalidRefs.add(node.employee.id());
+            }
+        }
+        if (org.ceoIndex() != ColumnarEmployeeRepository.NONE) ceoId = org.id(org.ceoIndex());
+
+        for (Node node : nodes.values()) {
+            updateFlags(node);
+            checkBand(node.employee.id());
+        }
+    }
+
+    public void apply(EmployeeEvent event) {
+        if (event instanceof EmployeeEvent.Added e) add(e.employee());
+        else if (event instanceof EmployeeEvent.Removed e) remove(e.id());
+        else if (event instanceof EmployeeEvent.SalaryChanged e) changeSalary(e.id(), e.salary());
+        else if (event instanceof EmployeeEvent.ManagerChanged e) changeManager(e.id(), e.managerId());
+    }
+
+    public void add(Employee e) {
+        if (nodes.containsKey(e.id())) {
+            throw new IllegalArgumentException("Employee already exists: " + e.id());
+        }
+        Node node = new Node(e, nextOrder++);
+        nodes.put(e.id(), node);
+        link(e.id(), e.managerId());
+
+        // employees that were waiting for this manager now resolve
+        for (long child : children.getOrDefault(e.id(), Set.of())) invalidRefs.remove(child);
+
+        if (e.managerId() == null && ceoId == null) ceoId = e.id();
+        closeCycleThrough(node);
+        refresh(e.id());
+
+        checkBand(e.id());
+        if (e.managerId() != null) checkBand(e.managerId());
+    }
+
+    public void remove(long id) {
+        Node node = require(id);
+        if (node.member) breakCycle(node.cycle);
+
+        Long mgr = node.employee.managerId();
+        unlink(id, mgr);
+        nodes.remove(id);
+        invalidRefs.remove(id);
+        cutOff.remove(id);
+        underpaid.remove(id);
+        overpaid.remove(id);
+        deep.remove(id);
+
+        List<Long> orphans = List.copyOf(children.getOrDefault(id, Set.of()));
+        for (long child : orphans) {
+            invalidRefs.add(child);
+            refresh(child);
+        }
+
+        if (Objects.equals(ceoId, id)) electCeo();
+        if (mgr != null) checkBand(mgr);
+    }
+
+    public void changeSalary(long id, double salary) {
+        Node node = require(id);
+        Employee e = node.employee;
+        node.employee = new Employee(e.id(), e.firstName(), e.lastName(), salary, e.managerId());
+
+        checkBand(id);
+        if (e.managerId() != null) checkBand(e.managerId());
+    }
+
+    public void changeManager(long id, Long managerId) {
+        Node node = require(id);
+        Employee e = node.employee;
+        Long oldManager = e.managerId();
+        if (Objects.equals(oldManager, managerId)) return;
+
+        node.employee = new Employee(e.id(), e.firstName(), e.lastName(), e.salary(), managerId);
+        unlink(id, oldManager);
+        link(id, managerId);
+
+        if (node.member) breakCycle(node.cycle);
+        closeCycleThrough(node);
+        if (Objects.equals(ceoId, id) || managerId == null) electCeo();
+        refresh(id);
+
+        checkBand(id);
+        if (oldManager != null) checkBand(oldManager);
+        if (managerId != null) checkBand(managerId);
+    }
+
+    public AnalysisReport report(int processed, int invalid) {
+        Map<Employee, Double> under = new LinkedHashMap<>();
+        underpaid.forEach((id, diff) -> under.put(nodes.get(id).employee, diff));
+        Map<Employee, Double> over = new LinkedHashMap<>();
+        overpaid.forEach((id, diff) -> over.put(nodes.get(id).employee, diff));
+        Map<Employee, Integer> tooDeep = new LinkedHashMap<>();
+        deep.forEach((id, extra) -> tooDeep.put(nodes.get(id).employee, extra));
+
+        List<String> invalidManagers = new ArrayList<>();
+        for (long id : invalidRefs) {
+            invalidManagers.add(new Finding.InvalidManager(id, nodes.get(id).employee.managerId()).message());
+        }
+
+        // in the order a full walk finds them: cut-off employees by position, a cycle by the
+        // first employee whose chain reaches it (its first member, or someone hanging under it)
+        List<Node> hanging = new ArrayList<>();
+        for (long id : cutOff) hanging.add(nodes.get(id));
+        hanging.sort(Comparator.comparingLong(node -> node.order));
+
+        Map<Cycle, Long> firstSeen = new HashMap<>();
+        for (Cycle c : cycles) firstSeen.put(c, nodes.get(c.members.get(0)).order);
+        for (Node node : hanging) firstSeen.merge(node.cycle, node.order, Math::min);
+        List<Cycle> ordered = new ArrayList<>(cycles);
+        ordered.sort(Comparator.comparingLong(firstSeen::get));
+
+        List<String> circular = new ArrayList<>();
+        for (Cycle c : ordered) circular.add(c.chain.message());
+
+        List<String> cutOffEmployees = new ArrayList<>();
+        for (Node node : hanging) {
+            cutOffEmployees.add(new Finding.CutOff(node.employee.id(), node.cycle.chain).message());
+        }
+
+        return new AnalysisReport(under, over, tooDeep, invalidManagers, duplicateIds,
+                circular, cutOffEmployees, processed, invalid, thresholds.maxDepth());
+    }
+
+    // ---- maintenance ----
+
+    private Node require(long id) {
+        Node node = nodes.get(id);
+        if (node == null) throw new NoSuchElementException("Unknown employee ID: " + id);
+        return node;
+    }
+
+    private void link(long id, Long managerId) {
+        if (managerId == null) return;
+        children.computeIfAbsent(managerId, k -> new LinkedHashSet<>()).add(id);
+        if (nodes.containsKey(managerId)) invalidRefs.remove(id);
+        else invalidRefs.add(id);
+    }
+
+    private void unlink(long id, Long managerId) {
+        if (managerId == null) return;
+        Set<Long> siblings = children.get(managerId);
+        if (siblings == null) return;
+        siblings.remove(id);
+        if (siblings.isEmpty()) children.remove(managerId);
+        invalidRefs.remove(id);
+    }
+
+    private Node managerOf(Node node) {
+        Long mgr = node.employee.managerId();
+        return mgr == null ? null : nodes.get(mgr);
+    }
+
+    // Walks up from the node's manager; reaching the node again means its new link closed a cycle.
+    private void closeCycleThrough(Node node) {
+        List<Long> members = new ArrayList<>();
+        members.add(node.employee.id());
+        for (Node cur = managerOf(node); cur != null && !cur.member; cur = managerOf(cur)) {
+            if (cur == node) {
+                Cycle cycle = new Cycle(canonical(members));
+                cycles.add(cycle);
+                for (long m : members) {
+                    Node member = nodes.get(m);
+                    member.member = true;
+                    member.cycle = cycle;
+                    member.depth = NO_DEPTH;
+                    updateFlags(member);
+                    checkBand(m);
+                }
+                return;
+            }
+            members.add(cur.employee.id());
+        }
+    }
+
+    // Rotates a cycle to start at its first-seen member, like HierarchyEngine; the order stays the reporting order.
+    private List<Long> canonical(List<Long> members) {
+        int first = 0;
+        for (int k = 1; k < members.size(); k++) {
+            if (nodes.get(members.get(k)).order < nodes.get(members.get(first)).order) first = k;
+        }
+        List<Long> rotated = new ArrayList<>(members.subList(first, members.size()));
+        rotated.addAll(members.subList(0, first));
+        return rotated;
+    }
+
+    private void breakCycle(Cycle cycle) {
+        cycles.remove(cycle);
+        for (long m : cycle.members) {
+            Node member = nodes.get(m);
+            member.member = false;
+            member.cycle = null;
+        }
+        // former members are re-derived by the caller's refresh; they are eligible for bands again
+        for (long m : cycle.members) checkBand(m);
+    }
+
+    private void electCeo() {
+        Long previous = ceoId;
+        ceoId = null;
+        for (Node node : nodes.values()) {
+            if (node.employee.managerId() == null) {
+                ceoId = node.employee.id();
+                break;
+            }
+        }
+        if (Objects.equals(previous, ceoId)) return;
+        if (previous != null && nodes.containsKey(previous)) refresh(previous);
+        if (ceoId != null) refresh(ceoId);
+    }
+
+    // Re-derives depth and cycle reachability for a node and everything reporting into it.
+    private void refresh(long rootId) {
+        Node root = nodes.get(rootId);
+        if (root == null) return;
+
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        if (root.member) {
+            for (long m : root.cycle.members) {
+                for (long child : children.getOrDefault(m, Set.of())) {
+                    if (!nodes.get(child).member) queue.add(child);
+                }
+            }
+        } else {
+            queue.add(rootId);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = nodes.get(queue.poll());
+            derive(node);
+            updateFlags(node);
+            queue.addAll(children.getOrDefault(node.employee.id(), Set.of()));
+        }
+    }
+
+    private void derive(Node node) {
+        Node mgr = managerOf(node);
+        node.depth = NO_DEPTH;
+        node.cycle = null;
+
+        if (node.employee.managerId() == null) {
+            if (Objects.equals(ceoId, node.employee.id())) node.depth = 0;
+        } else if (mgr != null) {
+            if (mgr.cycle != null) node.cycle = mgr.cycle;
+            else if (mgr.depth != NO_DEPTH) node.depth = mgr.depth + 1;
+        }
+    }
+
+    private void updateFlags(Node node) {
+        long id = node.employee.id();
+
+        if (node.depth > thresholds.maxDepth()) deep.put(id, node.depth - thresholds.maxDepth());
+        else deep.remove(id);
+
+        if (!node.member && node.cycle != null) cutOff.add(id);
+        else cutOff.remove(id);
+    }
+
+    private void checkBand(long id) {
+        underpaid.remove(id);
+        overpaid.remove(id);
+
+        Node node = nodes.get(id);
+        if (node == null || node.member) return;
+
+        Set<Long> subs = children.get(id);
+        if (subs == null || subs.isEmpty()) return;
+
+        long sum = 0;
+        for (long s : subs) sum = ColumnarEmployeeRepository.addCents(sum, ColumnarEmployeeRepository.toCents(nodes.get(s).employee.salary()));
+        long cents = ColumnarEmployeeRepository.toCents(node.employee.salary());
+
+        double shortfall;
+        double excess;
+        if (SalaryBand.exact(cents, sum)) {
+            shortfall = SalaryBand.shortfall(cents, sum, subs.size(), thresholds.minMultiplier());
+            excess = SalaryBand.excess(cents, sum, subs.size(), thresholds.maxMultiplier());
+        } else {
+            double salary = node.employee.salary();
+            double average = subs.stream().mapToDouble(s -> nodes.get(s).employee.salary()).average().orElse(Double.NaN);
+            shortfall = SalaryBand.shortfall(salary, average, thresholds.minMultiplier());
+            excess = SalaryBand.excess(salary, average, thresholds.maxMultiplier());
+        }
+        if (!Double.isNaN(shortfall)) underpaid.put(id, shortfall);
+        if (node.employee.managerId() != null && !Double.isNaN(excess)) overpaid.put(id, excess);
+    }
+
+    private static final class Node {
+        final long order;
+        Employee employee;
+        int depth = NO_DEPTH;
+        Cycle cycle;        // the cycle this node is on or hangs under
+        boolean member;
+
+        Node(Employee employee, long order) {
+            this.employee = employee;
+            this.order = order;
+        }
+    }
+
+    private static final class Cycle {
+        final List<Long> members;
+        final Finding.CircularChain chain;
+
+        Cycle(List<Long> members) {
+            this.members = List.copyOf(members);
+            this.chain = new Finding.CircularChain(members);
+        }
+    }
+}
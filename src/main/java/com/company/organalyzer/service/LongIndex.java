@@ -0,0 +1,81 @@
+package com.company.organalyzer.service;
+
+// Open-addressing map from a positive employee id to its dense index, without boxing.
+final class LongIndex {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    LongIndex(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[cap];
+        values = new int[cap];
+        mask = cap - 1;
+    }
+
+    // Wraps a table written out by keys()/values(), e.g. from a snapshot.
+    LongIndex(long[] keys, int[] values, int size) {
+        if (Integer.bitCount(keys.length) != 1 || values.length != keys.length) {
+            throw new IllegalArgumentException("Index capacity must be a power of two: " + keys.length);
+        }
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.mask = keys.length - 1;
+    }
+
+    int get(long key) {
+        if (key <= 0) return -1;
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) return -1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Returns the previous index for the key, or -1 if the key was added.
+    int putIfAbsent(long key, int value) {
+        if (key <= 0) throw new IllegalArgumentException("Employee ID must be positive: " + key);
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) break;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) grow();
+        return -1;
+    }
+
+    int size() { return size; }
+    long[] keys() { return keys; }
+    int[] values() { return values; }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
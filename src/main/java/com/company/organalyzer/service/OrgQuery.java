@@ -0,0 +1,166 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.rules.*;
+
+import java.util.*;
+
+/*
+ * Answers questions about one employee, one team or one kind of finding without analyzing
+ * the whole org first. The hierarchy is resolved lazily (HierarchyEngine.lazy): asking about
+ * an employee walks their manager chain once and memoizes depth and cycle membership for
+ * everyone on it, so a point query costs O(depth) the first time and O(1) after that, plus
+ * O(team size) for the salary band. A category scans the org once and is then kept.
+ *
+ * Answers are the findings streamFindings() would give for the same employees, in the same
+ * order. Not thread-safe.
+ */
+public final class OrgQuery {
+
+    private static final Map<String, String> RULE_OF_TYPE = Map.of(
+            "underpaid", UnderpaidRule.NAME,
+            "overpaid", OverpaidRule.NAME,
+            "too_deep", ReportingDepthRule.NAME);
+
+    private final ColumnarEmployeeRepository org;
+    private final HierarchyEngine.Result hierarchy;
+    private final RuleEngine rules;
+
+    private final Map<String, List<Finding>> categories = new HashMap<>();
+    private Set<Long> duplicates;
+
+    public OrgQuery(EmployeeRepository repo) {
+        this(repo, AnalysisThresholds.DEFAULTS);
+    }
+
+    public OrgQuery(EmployeeRepository repo, AnalysisThresholds thresholds) {
+        this(repo, RuleEngine.standard(thresholds));
+    }
+
+    // Findings of rules beyond the standard ones are RuleFindings, and their category is the rule's name.
+    public OrgQuery(EmployeeRepository repo, RuleEngine rules) {
+        this.org = ColumnarEmployeeRepository.of(repo);
+        this.hierarchy = HierarchyEngine.lazy(org);
+        this.rules = rules;
+    }
+
+    // Levels below the CEO, or HierarchyEngine.UNREACHABLE.
+    public int depth(long id) {
+        return hierarchy.depth(require(id));
+    }
+
+    public boolean inCycle(long id) {
+        return hierarchy.inCycle(require(id));
+    }
+
+    // Everything reported about the employee: salary band and depth, then data issues.
+    public List<Finding> employee(long id) {
+        List<Finding> out = new ArrayList<>();
+        collect(require(id), out);
+        return out;
+    }
+
+    // The manager's findings, then each direct report's in file order.
+    public List<Finding> team(long managerId) {
+        int m = require(managerId);
+        List<Finding> out = new ArrayList<>();
+        collect(m, out);
+        for (int k = org.childStart(m); k < org.childEnd(m); k++) collect(org.child(k), out);
+        return out;
+    }
+
+    // Every finding of one type (Finding.type()), in employee order.
+    public List<Finding> category(String type) {
+        List<Finding> found = categories.get(type);
+        if (found == null) {
+            found = List.copyOf(scan(type));
+            categories.put(type, found);
+        }
+        return found;
+    }
+
+    private void collect(int i, List<Finding> out) {
+        RuleResults results = rules.evaluate(org, hierarchy, i, i + 1);
+        for (String rule : results.rules()) {
+            var f = results.get(rule);
+            for (int k = 0; k < f.size(); k++) out.add(OrganizationAnalyzer.finding(rule, org.employee(i), f.amount(k)));
+        }
+
+        long id = org.id(i);
+        if (invalidManager(i)) out.add(new Finding.InvalidManager(id, org.managerId(i)));
+        if (duplicates().contains(id)) out.add(new Finding.DuplicateId(id));
+        if (hierarchy.inCycle(i)) out.add(chain(hierarchy.cycleOf(i)));
+        else if (hierarchy.cutOffByCycle(i)) out.add(new Finding.CutOff(id, chain(hierarchy.cycleOf(i))));
+    }
+
+    private List<Finding> scan(String type) {
+        List<Finding> out = new ArrayList<>();
+        int n = org.size();
+
+        String rule = RULE_OF_TYPE.getOrDefault(type, type);
+        Rule only = null;
+        for (Rule r : rules.rules()) {
+            if (r.name().equals(rule)) only = r;
+        }
+        // a standard rule that was unregistered has no findings
+        if (only == null && RULE_OF_TYPE.containsKey(type)) return out;
+        if (only != null) {
+            var f = new RuleEngine(List.of(only)).evaluate(org, hierarchy, 0, n).get(rule);
+            for (int k = 0; k < f.size(); k++) out.add(OrganizationAnalyzer.finding(rule, org.employee(f.index(k)), f.amount(k)));
+            return out;
+        }
+
+        switch (type) {
+            case "invalid_manager" -> {
+                for (int i = 0; i < n; i++) {
+                    if (invalidManager(i)) out.add(new Finding.InvalidManager(org.id(i), org.managerId(i)));
+                }
+            }
+            case "duplicate_id" -> {
+                for (long id : org.getDuplicates()) out.add(new Finding.DuplicateId(id));
+            }
+            case "circular_chain" -> {
+                // in the order a full walk finds them: by the first employee whose chain reaches the cycle
+                boolean[] seen = new boolean[n];
+                for (int i = 0; i < n; i++) {
+                    int c = hierarchy.cycleOf(i);
+                    if (c != HierarchyEngine.NO_CYCLE && !seen[c]) {
+                        seen[c] = true;
+                        out.add(chain(c));
+                    }
+                }
+            }
+            case "cut_off" -> {
+                for (int i = 0; i < n; i++) {
+                    if (hierarchy.cutOffByCycle(i)) out.add(new Finding.CutOff(org.id(i), chain(hierarchy.cycleOf(i))));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown finding type: " + type);
+        }
+        return out;
+    }
+
+    private boolean invalidManager(int i) {
+        return org.managerId(i) != ColumnarEmployeeRepository.NO_MANAGER && org.parent(i) == ColumnarEmployeeRepository.NONE;
+    }
+
+    private Set<Long> duplicates() {
+        if (duplicates == null) {
+            duplicates = new HashSet<>(org.getDuplicates());
+        }
+        return duplicates;
+    }
+
+    private Finding.CircularChain chain(int cycle) {
+        int[] members = hierarchy.cycles().get(cycle);
+        List<Long> ids = new ArrayList<>(members.length);
+        for (int m : members) ids.add(org.id(m));
+        return new Finding.CircularChain(ids);
+    }
+
+    private int require(long id) {
+        int i = org.indexOf(id);
+        if (i == ColumnarEmployeeRepository.NONE) throw new NoSuchElementException("Unknown employee ID: " + id);
+        return i;
+    }
+}
@@ -1,132 +1,281 @@
 package com.company.organalyzer.service;
 
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
 import com.company.organalyzer.model.AnalysisReport;
 import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.model.FindingSink;
+import com.company.organalyzer.model.FindingsPage;
+import com.company.organalyzer.rules.*;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class OrganizationAnalyzer {
 
-    private static final double MIN_MULTIPLIER = 1.20;
-    private static final double MAX_MULTIPLIER = 1.50;
-    private static final int MAX_DEPTH = 4;
+    private static final int PARALLEL_CHUNK = 1 << 14;
 
-    private final EmployeeRepository repo;
+    private final ColumnarEmployeeRepository org;
+    private final RuleEngine rules;
     private final List<String> circularRefs = new ArrayList<>();
+    private final List<String> cutOffEmployees = new ArrayList<>();
+
+    // from the last analysis, so pages reuse it
+    private HierarchyEngine.Result hierarchy;
 
     public OrganizationAnalyzer(EmployeeRepository repo) {
-        this.repo = repo;
+        this(repo, AnalysisThresholds.DEFAULTS);
+    }
+
+    public OrganizationAnalyzer(EmployeeRepository repo, AnalysisThresholds thresholds) {
+        this(repo, RuleEngine.standard(thresholds));
+    }
+
+    // Rules registered on or reconfigured in the engine apply from the next analysis on.
+    // A map-based repository is copied into columns once, here, not on every analysis.
+    public OrganizationAnalyzer(EmployeeRepository repo, RuleEngine rules) {
+        this.org = ColumnarEmployeeRepository.of(repo);
+        this.rules = rules;
     }
 
+    public RuleEngine rules() { return rules; }
+
     public AnalysisReport analyze(int processed, int invalid) {
 
-        Set<Long> cycles = detectCycles();
+        prepare();
 
-        Map<Employee, Double> underpaid = new LinkedHashMap<>();
-        Map<Employee, Double> overpaid = new LinkedHashMap<>();
-        Map<Employee, Integer> deep = new LinkedHashMap<>();
+        RuleResults results;
+        try (Stage stage = Metrics.stage("rules")) {
+            results = rules.evaluate(org, hierarchy, 0, org.size());
+            stage.rows(org.size());
+        }
+        return report(org, results, processed, invalid);
+    }
 
-        for (Employee m : repo.allEmployees()) {
-            if (cycles.contains(m.id())) continue;
+    // Same results, in the same order, as analyze(); managers are split into fixed index
+    // ranges that are scanned on the pool and concatenated back in range order.
+    public AnalysisReport analyzeParallel(int processed, int invalid) {
+        return analyzeParallel(processed, invalid, ForkJoinPool.commonPool());
+    }
 
-            var subs = repo.getSubordinates(m.id());
-            if (subs.isEmpty()) continue;
+    public AnalysisReport analyzeParallel(int processed, int invalid, ForkJoinPool pool) {
 
-            double avg = subs.stream().mapToDouble(Employee::salary).average().orElse(0);
-            double minReq = avg * MIN_MULTIPLIER;
-            double maxReq = avg * MAX_MULTIPLIER;
+        prepare();
+        var hierarchy = this.hierarchy;
 
-            if (m.salary() < minReq) underpaid.put(m, minReq - m.salary());
-            if (m.managerId() != null && m.salary() > maxReq)
-                overpaid.put(m, m.salary() - maxReq);
+        int n = org.size();
+        RuleResults[] slots = new RuleResults[(n + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK];
+        List<RecursiveAction> tasks = new ArrayList<>(slots.length);
+        for (int k = 0; k < slots.length; k++) {
+            int slot = k;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    int from = slot * PARALLEL_CHUNK;
+                    slots[slot] = rules.evaluate(org, hierarchy, from, Math.min(n, from + PARALLEL_CHUNK));
+                }
+            });
         }
+        RuleResults results;
+        try (Stage stage = Metrics.stage("rules")) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+            results = RuleResults.concat(Arrays.asList(slots));
+            stage.rows(n);
+        }
+        return report(org, results, processed, invalid);
+    }
 
-        Map<Long, Integer> depth = computeDepth(cycles);
-        depth.forEach((id, d) -> {
-            if (d > MAX_DEPTH) {
-                deep.put(repo.allById().get(id), d - MAX_DEPTH);
-            }
-        });
+    // Like analyze(), but each category keeps only its k worst employees, worst first, in a
+    // bounded heap; the report's size no longer grows with the number of violations.
+    public AnalysisReport analyzeTop(int processed, int invalid, int k) {
 
-        return new AnalysisReport(
-                underpaid,
-                overpaid,
-                deep,
-                repo.getInvalidManagers(),
-                repo.getDuplicateIds(),
-                circularRefs,
-                processed,
-                invalid
-        );
+        prepare();
+
+        RuleResults results;
+        try (Stage stage = Metrics.stage("rules")) {
+            results = rules.evaluateTop(org, hierarchy, 0, org.size(), k, Map.of());
+            stage.rows(org.size());
+        }
+        return report(org, results, processed, invalid);
     }
 
-    private Map<Long, Integer> computeDepth(Set<Long> exclude) {
-        Map<Long, Integer> depth = new HashMap<>();
-        Employee ceo = repo.getCeo();
-        if (ceo == null) return depth;
+    // One page of a rule's findings, worst first: null for the first page, then the previous
+    // page's nextCursor. Each page is one scan keeping `limit` findings of that rule only.
+    public FindingsPage page(String rule, int limit, String cursor) {
+        if (hierarchy == null) resolve();
+        return page(org, hierarchy, rules, rule, limit, cursor);
+    }
+
+    // The same page over a given org, hierarchy and rule set, for callers that keep their own.
+    public static FindingsPage page(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy, RuleEngine rules,
+                                    String rule, int limit, String cursor) {
+        Rule only = null;
+        for (Rule r : rules.rules()) {
+            if (r.name().equals(rule)) only = r;
+        }
+        if (only == null) throw new NoSuchElementException("No results for rule: " + rule);
+
+        Map<String, Rank> after = cursor == null ? Map.of() : Map.of(rule, Rank.parse(cursor));
+        var f = new RuleEngine(List.of(only)).evaluateTop(org, hierarchy, 0, org.size(), limit, after).get(rule);
 
-        Queue<Long> q = new ArrayDeque<>();
-        q.add(ceo.id());
-        depth.put(ceo.id(), 0);
+        List<FindingsPage.Item> items = new ArrayList<>(f.size());
+        for (int k = 0; k < f.size(); k++) items.add(new FindingsPage.Item(org.employee(f.index(k)), f.amount(k)));
+        Rank next = f.next();
+        return new FindingsPage(rule, items, f.total(), next == null ? null : next.token());
+    }
+
+    /*
+     * Streams every finding to the sink without building a report, so memory beyond the org
+     * itself stays constant however many employees are flagged. Salary and depth findings come
+     * first, in employee order, as the rule pass finds them. Then come invalid manager references,
+     * duplicate ids, circular chains and the employees they cut off. Returns how many were written.
+     */
+    public long streamFindings(FindingSink sink) throws IOException {
 
-        while (!q.isEmpty()) {
-            long id = q.poll();
-            int d = depth.get(id);
+        resolve();
+        var hierarchy = this.hierarchy;
+        long[] written = {0};
 
-            for (Employee sub : repo.getSubordinates(id)) {
-                if (exclude.contains(sub.id())) continue;
-                if (!depth.containsKey(sub.id())) {
-                    depth.put(sub.id(), d + 1);
-                    q.add(sub.id());
+        try (Stage stage = Metrics.stage("stream")) {
+            rules.scan(org, hierarchy, 0, org.size(), (rule, i, amount) -> {
+                sink.accept(finding(rule.name(), org.employee(i), amount));
+                written[0]++;
+            });
+
+            for (int i = 0; i < org.size(); i++) {
+                long manager = org.managerId(i);
+                if (manager != ColumnarEmployeeRepository.NO_MANAGER && org.parent(i) == ColumnarEmployeeRepository.NONE) {
+                    sink.accept(new Finding.InvalidManager(org.id(i), manager));
+                    written[0]++;
                 }
             }
+            for (long duplicate : org.getDuplicates()) {
+                sink.accept(new Finding.DuplicateId(duplicate));
+                written[0]++;
+            }
+
+            // chains are built as they are written, not kept per cycle
+            for (int c = 0; c < hierarchy.cycles().size(); c++) {
+                sink.accept(chain(org, hierarchy, c));
+                written[0]++;
+            }
+            for (int i = 0; i < org.size(); i++) {
+                if (hierarchy.cutOffByCycle(i)) {
+                    sink.accept(new Finding.CutOff(org.id(i), chain(org, hierarchy, hierarchy.cycleOf(i))));
+                    written[0]++;
+                }
+            }
+            stage.rows(org.size());
         }
+        return written[0];
+    }
 
-        return depth;
+    // A rule's result as a Finding; rules other than the standard three give a RuleFinding.
+    static Finding finding(String rule, Employee e, double amount) {
+        return switch (rule) {
+            case UnderpaidRule.NAME -> new Finding.Underpaid(e, amount);
+            case OverpaidRule.NAME -> new Finding.Overpaid(e, amount);
+            case ReportingDepthRule.NAME -> new Finding.TooDeep(e, (int) amount);
+            default -> new Finding.RuleFinding(rule, e, amount);
+        };
     }
 
-    private Set<Long> detectCycles() {
-        Set<Long> visited = new HashSet<>();
-        Set<Long> stack = new HashSet<>();
-        Set<Long> cyc = new LinkedHashSet<>();
+    private void prepare() {
+        resolve();
+        recordCycles(org, hierarchy);
+    }
 
-        for (Employee e : repo.allEmployees()) {
-            if (!visited.contains(e.id())) {
-                dfs(e.id(), visited, stack, cyc);
-            }
+    // The hierarchy only, without the report's cycle messages.
+    private void resolve() {
+        hierarchy = HierarchyEngine.run(org, false);
+    }
+
+    private AnalysisReport report(ColumnarEmployeeRepository org, RuleResults results, int processed, int invalid) {
+
+        if (Metrics.enabled()) {
+            for (String rule : results.rules()) Metrics.peak("findings." + rule, results.get(rule).size());
         }
 
-        if (!cyc.isEmpty()) circularRefs.add("Circular reporting chain detected: " + cyc);
-        return cyc;
+        Map<Employee, Double> underpaid = new LinkedHashMap<>();
+        Map<Employee, Double> overpaid = new LinkedHashMap<>();
+        Map<Employee, Integer> deep = new LinkedHashMap<>();
+
+        // a standard rule may have been unregistered; its section is then empty
+        if (results.rules().contains(UnderpaidRule.NAME)) {
+            var f = results.get(UnderpaidRule.NAME);
+            for (int k = 0; k < f.size(); k++) underpaid.put(org.employee(f.index(k)), f.amount(k));
+        }
+        if (results.rules().contains(OverpaidRule.NAME)) {
+            var f = results.get(OverpaidRule.NAME);
+            for (int k = 0; k < f.size(); k++) overpaid.put(org.employee(f.index(k)), f.amount(k));
+        }
+        if (results.rules().contains(ReportingDepthRule.NAME)) {
+            var f = results.get(ReportingDepthRule.NAME);
+            for (int k = 0; k < f.size(); k++) deep.put(org.employee(f.index(k)), (int) f.amount(k));
+        }
+
+        return new AnalysisReport(
+                underpaid,
+                overpaid,
+                deep,
+                org.getInvalidManagers(),
+                org.getDuplicateIds(),
+                circularRefs,
+                cutOffEmployees,
+                processed,
+                invalid,
+                maxDepth()
+        );
     }
 
-    private boolean dfs(long id, Set<Long> visited, Set<Long> stack, Set<Long> cyc) {
+    // The limit of the registered depth rule, for the report's heading.
+    private int maxDepth() {
+        for (Rule r : rules.rules()) {
+            if (r instanceof ReportingDepthRule depth) return depth.maxDepth();
+        }
+        return AnalysisReport.DEFAULT_MAX_DEPTH;
+    }
 
-        visited.add(id);
-        stack.add(id);
+    private void recordCycles(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy) {
+        circularRefs.clear();
+        cutOffEmployees.clear();
 
-        Employee e = repo.allById().get(id);
-        if (e != null && e.managerId() != null) {
-            long mgr = e.managerId();
+        List<Finding.CircularChain> chains = chains(org, hierarchy);
+        for (Finding.CircularChain chain : chains) circularRefs.add(chain.message());
 
-            if (!visited.contains(mgr)) {
-                if (dfs(mgr, visited, stack, cyc)) {
-                    cyc.add(id);
-                    stack.remove(id);
-                    return true;
-                }
-            }
-            else if (stack.contains(mgr)) {
-                cyc.add(id);
-                cyc.add(mgr);
-                stack.remove(id);
-                return true;
+        for (int i = 0; i < org.size(); i++) {
+            if (hierarchy.cutOffByCycle(i)) {
+                cutOffEmployees.add(new Finding.CutOff(org.id(i), chains.get(hierarchy.cycleOf(i))).message());
             }
         }
+    }
+
+    private static List<Finding.CircularChain> chains(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy) {
+        List<Finding.CircularChain> chains = new ArrayList<>(hierarchy.cycles().size());
+        for (int c = 0; c < hierarchy.cycles().size(); c++) chains.add(chain(org, hierarchy, c));
+        return chains;
+    }
 
-        stack.remove(id);
-        return false;
+    private static Finding.CircularChain chain(ColumnarEmployeeRepository org, HierarchyEngine.Result hierarchy, int c) {
+        int[] cycle = hierarchy.cycles().get(c);
+        List<Long> ids = new ArrayList<>(cycle.length);
+        for (int m : cycle) ids.add(org.id(m));
+        return new Finding.CircularChain(ids);
     }
 
+    // The hierarchy walked by the last analysis, or null before the first one.
+    public HierarchyEngine.Result hierarchy() { return hierarchy; }
+
+    // From the last analyze*() call; streamFindings() and page() leave them as they were.
     public List<String> getCircularReferences() { return circularRefs; }
+    public List<String> getCutOffEmployees() { return cutOffEmployees; }
 }
@@ -0,0 +1,145 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.report.ReportWriter;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.RuleEngine;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/*
+ * Parses, builds, analyzes and writes a report with the stages overlapping instead of each
+ * waiting for the previous one. The parser fills batches of rows and hands them to the
+ * repository builder on its own thread through a bounded queue; a full queue blocks the
+ * parser, so at most QUEUE_BATCHES batches are in flight however large the file is. Once the
+ * repository is built, invalid references and duplicates are final and their report sections
+ * are rendered on another thread while the hierarchy and salary rules run.
+ *
+ * The report is the same, byte for byte, as parsing, building and analyzing one after another.
+ */
+public final class PipelinedAnalyzer {
+
+    static final int BATCH_ROWS = 4096;
+    static final int QUEUE_BATCHES = 8;
+
+    private static final Employee[] END = new Employee[0];
+
+    public record Result(ColumnarEmployeeRepository repo, List<String> errors, AnalysisReport report) {}
+
+    private record Built(ColumnarEmployeeRepository repo, int added) {}
+
+    private interface Source {
+        List<String> parse(Consumer<Employee> sink) throws IOException;
+    }
+
+    private PipelinedAnalyzer() {}
+
+    public static Result run(Path csv, Writer out) throws IOException {
+        return run(csv, out, RuleEngine.standard(AnalysisThresholds.DEFAULTS));
+    }
+
+    public static Result run(Path csv, Writer out, RuleEngine rules) throws IOException {
+        return run(sink -> CsvEmployeeParser.parse(csv, sink), ColumnarEmployeeRepository.builderFor(csv), out, rules);
+    }
+
+    public static Result run(InputStream in, Writer out) throws IOException {
+        return run(in, out, RuleEngine.standard(AnalysisThresholds.DEFAULTS));
+    }
+
+    public static Result run(InputStream in, Writer out, RuleEngine rules) throws IOException {
+        return run(sink -> CsvEmployeeParser.parse(in, sink), ColumnarEmployeeRepository.builder(0), out, rules);
+    }
+
+    private static Result run(Source source, ColumnarEmployeeRepository.Builder builder, Writer out, RuleEngine rules)
+            throws IOException {
+        BlockingQueue<Employee[]> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        ExecutorService stages = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Built> building = stages.submit(() -> build(queue, builder));
+
+            List<String> errors;
+            try {
+                Batcher batcher = new Batcher(queue, building);
+                errors = source.parse(batcher);
+                batcher.finish();
+            } catch (UncheckedIOException e) {
+                building.cancel(true);
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                building.cancel(true);
+                throw e;
+            }
+
+            Built built = ShardedAnalyzer.join(building);
+            var repo = built.repo();
+            Future<String> references = stages.submit(
+                    () -> ReportWriter.referenceSections(repo.getInvalidManagers(), repo.getDuplicateIds()));
+
+            int invalid = errors.size() + repo.getInvalidManagers().size() + repo.getDuplicateIds().size();
+            var report = new OrganizationAnalyzer(repo, rules).analyzeParallel(built.added(), invalid);
+            new ReportWriter(out).write(report, ShardedAnalyzer.join(references));
+            return new Result(repo, List.copyOf(errors), report);
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+
+    private static Built build(BlockingQueue<Employee[]> queue, ColumnarEmployeeRepository.Builder builder)
+            throws InterruptedException {
+        for (Employee[] batch; (batch = queue.take()) != END; ) {
+            for (Employee e : batch) builder.add(e);
+        }
+        return new Built(builder.build(), builder.added());
+    }
+
+    // Collects parsed rows into batches for the builder.
+    private static final class Batcher implements Consumer<Employee> {
+        private final BlockingQueue<Employee[]> queue;
+        private final Future<Built> building;
+        private Employee[] batch = new Employee[BATCH_ROWS];
+        private int filled;
+
+        Batcher(BlockingQueue<Employee[]> queue, Future<Built> building) {
+            this.queue = queue;
+            this.building = building;
+        }
+
+        @Override
+        public void accept(Employee e) {
+            batch[filled++] = e;
+            if (filled == BATCH_ROWS) {
+                hand(batch);
+                batch = new Employee[BATCH_ROWS];
+                filled = 0;
+            }
+        }
+
+        void finish() {
+            if (filled > 0) hand(Arrays.copyOf(batch, filled));
+            hand(END);
+        }
+
+        // Blocks while the queue is full; gives up if the builder has stopped, so join() reports why.
+        private void hand(Employee[] b) {
+            try {
+                while (!queue.offer(b, 10, TimeUnit.MILLISECONDS)) {
+                    if (building.isDone()) {
+                        ShardedAnalyzer.join(building);
+                        throw new IllegalStateException("Repository builder stopped early");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Pipeline interrupted"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
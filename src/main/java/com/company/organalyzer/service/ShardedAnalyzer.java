@@ -0,0 +1,89 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.parser.NameDictionary;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.RuleEngine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+ * Analyzes one CSV per business unit as a single organization. Each file is parsed on its
+ * own pool thread into a shard repository; the shards are then merged in the order given,
+ * which resolves managers that live in another unit's file, and the merged org is analyzed
+ * in parallel. Parse errors are prefixed with their file name.
+ */
+public final class ShardedAnalyzer {
+
+    public record Shard(Path file, ColumnarEmployeeRepository repo, List<String> errors, int added) {}
+
+    public record Result(List<Shard> shards, ColumnarEmployeeRepository merged,
+                         List<String> errors, AnalysisReport report) {}
+
+    private ShardedAnalyzer() {}
+
+    public static Result analyze(List<Path> files) throws IOException {
+        return analyze(files, ForkJoinPool.commonPool());
+    }
+
+    public static Result analyze(List<Path> files, ForkJoinPool pool) throws IOException {
+        return analyze(files, pool, RuleEngine.standard(AnalysisThresholds.DEFAULTS));
+    }
+
+    public static Result analyze(List<Path> files, ForkJoinPool pool, RuleEngine rules) throws IOException {
+        NameDictionary names = new NameDictionary();
+
+        List<Callable<Shard>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            NameDictionary shardNames = names.fork();
+            tasks.add(() -> parse(file, shardNames));
+        }
+
+        List<Shard> shards = new ArrayList<>(files.size());
+        for (Future<Shard> f : pool.invokeAll(tasks)) shards.add(join(f));
+
+        List<ColumnarEmployeeRepository> repos = new ArrayList<>(shards.size());
+        List<String> errors = new ArrayList<>();
+        int processed = 0;
+        for (Shard shard : shards) {
+            repos.add(shard.repo());
+            errors.addAll(shard.errors());
+            processed += shard.added();
+        }
+
+        var merged = ColumnarEmployeeRepository.merge(repos);
+        int invalid = errors.size() + merged.getInvalidManagers().size() + merged.getDuplicateIds().size();
+        var report = new OrganizationAnalyzer(merged, rules).analyzeParallel(processed, invalid, pool);
+
+        return new Result(List.copyOf(shards), merged, List.copyOf(errors), report);
+    }
+
+    private static Shard parse(Path file, NameDictionary names) throws IOException {
+        var builder = ColumnarEmployeeRepository.builderFor(file);
+        List<String> errors = new ArrayList<>();
+        String prefix = file.getFileName() + ": ";
+        for (String e : CsvEmployeeParser.parse(file, builder::add, names)) errors.add(prefix + e);
+        return new Shard(file, builder.build(), errors, builder.added());
+    }
+
+    static <T> T join(Future<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parse interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.OrgDelta;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.parser.NameDictionary;
+import com.company.organalyzer.rules.AnalysisThresholds;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+ * Compares two exports of the same org, e.g. last month's and this month's. In memory the
+ * old export's id index turns the record join into one linear pass over the new export:
+ * every id is probed once, and old employees never matched were removed. Exports too large
+ * for the heap are sorted by id into spill files and merge-joined instead, with findings
+ * from ExternalAnalyzer; both paths give the same delta.
+ */
+public final class SnapshotDiff {
+
+    private static final int NONE = ColumnarEmployeeRepository.NONE;
+    private static final long NO_MANAGER = ColumnarEmployeeRepository.NO_MANAGER;
+
+    private SnapshotDiff() {}
+
+    // Loads and analyzes both exports side by side; files ending in .snap are SnapshotWriter snapshots.
+    public static OrgDelta diff(Path before, Path after) throws IOException {
+        return diff(before, after, AnalysisThresholds.DEFAULTS);
+    }
+
+    public static OrgDelta diff(Path before, Path after, AnalysisThresholds thresholds) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<Callable<Loaded>> tasks = List.of(() -> load(before, pool, thresholds), () -> load(after, pool, thresholds));
+        List<Future<Loaded>> loaded = pool.invokeAll(tasks);
+        Loaded a = ShardedAnalyzer.join(loaded.get(0));
+        Loaded b = ShardedAnalyzer.join(loaded.get(1));
+        return diff(a.repo(), a.report(), b.repo(), b.report());
+    }
+
+    private record Loaded(ColumnarEmployeeRepository repo, AnalysisReport report) {}
+
+    private static Loaded load(Path file, ForkJoinPool pool, AnalysisThresholds thresholds) throws IOException {
+        ColumnarEmployeeRepository repo;
+        int processed;
+        int errors = 0;
+        if (isSnapshot(file)) {
+            repo = SnapshotReader.read(file);
+            processed = repo.size();
+        } else {
+            var builder = ColumnarEmployeeRepository.builderFor(file);
+            errors = CsvEmployeeParser.parse(file, builder::add, new NameDictionary()).size();
+            repo = builder.build();
+            processed = builder.added();
+        }
+        int invalid = errors + repo.getInvalidManagers().size() + repo.getDuplicateIds().size();
+        return new Loaded(repo, new OrganizationAnalyzer(repo, thresholds).analyzeParallel(processed, invalid, pool));
+    }
+
+    static boolean isSnapshot(Path file) {
+        return file.getFileName().toString().endsWith(".snap");
+    }
+
+    public static OrgDelta diff(ColumnarEmployeeRepository before, AnalysisReport beforeReport,
+                                ColumnarEmployeeRepository after, AnalysisReport afterReport) {
+        List<Employee> added = new ArrayList<>();
+        List<Employee> removed = new ArrayList<>();
+        List<OrgDelta.Change> salaryChanges = new ArrayList<>();
+        List<OrgDelta.Change> managerMoves = new ArrayList<>();
+
+        try (Stage stage = Metrics.stage("diff")) {
+            boolean[] matched = new boolean[before.size()];
+            for (int i = 0; i < after.size(); i++) {
+                int j = before.indexOf(after.id(i));
+                if (j == NONE) {
+                    added.add(after.employee(i));
+                    continue;
+                }
+                matched[j] = true;
+                boolean salary = Double.compare(before.salary(j), after.salary(i)) != 0;
+                boolean moved = before.managerId(j) != after.managerId(i);
+                if (salary || moved) {
+                    var change = new OrgDelta.Change(before.employee(j), after.employee(i));
+                    if (salary) salaryChanges.add(change);
+                    if (moved) managerMoves.add(change);
+                }
+            }
+            for (int j = 0; j < before.size(); j++) {
+                if (!matched[j]) removed.add(before.employee(j));
+            }
+            stage.rows((long) before.size() + after.size());
+        }
+        return delta(added, removed, salaryChanges, managerMoves, beforeReport, afterReport);
+    }
+
+    // ---- out of core ----
+
+    // Both files must be CSV exports; snapshots load whole, so they are only compared in memory.
+    public static OrgDelta diff(Path beforeCsv, Path afterCsv, long budget, Path tempDir) throws IOException {
+        return diff(beforeCsv, afterCsv, budget, tempDir, AnalysisThresholds.DEFAULTS);
+    }
+
+    public static OrgDelta diff(Path beforeCsv, Path afterCsv, long budget, Path tempDir,
+                                AnalysisThresholds thresholds) throws IOException {
+        for (Path file : List.of(beforeCsv, afterCsv)) {
+            if (isSnapshot(file)) throw new IllegalArgumentException("Snapshots cannot be compared within a budget: " + file);
+        }
+        var analyzer = new ExternalAnalyzer(budget, tempDir, thresholds);
+        Path dir = Files.createTempDirectory(tempDir, "org-diff");
+        try {
+            // each file is parsed once; the analysis keeps its by-id records and names for the join
+            var a = analyzer.analyzeKeeping(beforeCsv, dir);
+            var b = analyzer.analyzeKeeping(afterCsv, dir);
+            return mergeJoin(a, b);
+        } finally {
+            ExternalAnalyzer.deleteAll(dir);
+        }
+    }
+
+    // An employee's surviving record: the first row's position, the last row's data.
+    private record Row(long id, long pos, long managerId, double salary, long nameRow) {}
+
+    private record Pair(Row before, Row after, boolean salary, boolean moved) {}
+
+    // Walks ExternalAnalyzer's by-id records, one employee each.
+    private static final class Rows implements AutoCloseable {
+        private final SpillFile.Reader in;
+        private final long[] r = new long[5];
+        boolean valid;
+        long id, pos, managerId, salaryBits, nameRow;
+
+        Rows(SpillFile.Reader in) throws IOException {
+            this.in = in;
+            advance();
+        }
+
+        void advance() throws IOException {
+            valid = in.next(r);
+            if (!valid) return;
+            id = r[0];
+            pos = r[1];
+            managerId = r[2];
+            salaryBits = r[3];
+            nameRow = r[4];
+        }
+
+        Row row() {
+            return new Row(id, pos, managerId, Double.longBitsToDouble(salaryBits), nameRow);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static OrgDelta mergeJoin(ExternalAnalyzer.Spilled before, ExternalAnalyzer.Spilled after) throws IOException {
+        SpilledCsv beforeCsv = before.csv();
+        SpilledCsv afterCsv = after.csv();
+        List<Row> addedRows = new ArrayList<>();
+        List<Row> removedRows = new ArrayList<>();
+        List<Pair> changed = new ArrayList<>();
+
+        try (Stage stage = Metrics.stage("diff");
+             Rows a = new Rows(before.byId().reader()); Rows b = new Rows(after.byId().reader())) {
+            while (a.valid || b.valid) {
+                if (!b.valid || (a.valid && a.id < b.id)) {
+                    removedRows.add(a.row());
+                    a.advance();
+                } else if (!a.valid || b.id < a.id) {
+                    addedRows.add(b.row());
+                    b.advance();
+                } else {
+                    boolean salary = Double.compare(Double.longBitsToDouble(a.salaryBits),
+                            Double.longBitsToDouble(b.salaryBits)) != 0;
+                    boolean moved = a.managerId != b.managerId;
+                    if (salary || moved) changed.add(new Pair(a.row(), b.row(), salary, moved));
+                    a.advance();
+                    b.advance();
+                }
+            }
+            stage.rows(beforeCsv.rows + afterCsv.rows);
+        }
+
+        // back into export order, as the in-memory join produces them
+        addedRows.sort(Comparator.comparingLong(Row::pos));
+        removedRows.sort(Comparator.comparingLong(Row::pos));
+        changed.sort(Comparator.comparingLong(p -> p.after().pos()));
+
+        long[] beforeWanted = new long[removedRows.size() + changed.size()];
+        long[] afterWanted = new long[addedRows.size() + changed.size()];
+        int k = 0;
+        for (Row r : removedRows) beforeWanted[k++] = r.nameRow();
+        for (Pair p : changed) beforeWanted[k++] = p.before().nameRow();
+        k = 0;
+        for (Row r : addedRows) afterWanted[k++] = r.nameRow();
+        for (Pair p : changed) afterWanted[k++] = p.after().nameRow();
+        Map<Long, String[]> beforeNames = beforeCsv.names(beforeWanted);
+        Map<Long, String[]> afterNames = afterCsv.names(afterWanted);
+
+        List<Employee> added = new ArrayList<>(addedRows.size());
+        for (Row r : addedRows) added.add(employee(r, afterNames));
+        List<Employee> removed = new ArrayList<>(removedRows.size());
+        for (Row r : removedRows) removed.add(employee(r, beforeNames));
+        List<OrgDelta.Change> salaryChanges = new ArrayList<>();
+        List<OrgDelta.Change> managerMoves = new ArrayList<>();
+        for (Pair p : changed) {
+            var change = new OrgDelta.Change(employee(p.before(), beforeNames), employee(p.after(), afterNames));
+            if (p.salary()) salaryChanges.add(change);
+            if (p.moved()) managerMoves.add(change);
+        }
+        return delta(added, removed, salaryChanges, managerMoves, before.report(), after.report());
+    }
+
+    private static Employee employee(Row r, Map<Long, String[]> named) {
+        String[] name = named.get(r.nameRow());
+        return new Employee(r.id(), name[0], name[1], r.salary(), r.managerId() == NO_MANAGER ? null : r.managerId());
+    }
+
+    // ---- findings ----
+
+    private static OrgDelta delta(List<Employee> added, List<Employee> removed,
+                                  List<OrgDelta.Change> salaryChanges, List<OrgDelta.Change> managerMoves,
+                                  AnalysisReport before, AnalysisReport after) {
+        List<OrgDelta.Finding> appeared = new ArrayList<>();
+        List<OrgDelta.Finding> cleared = new ArrayList<>();
+        compare(OrgDelta.UNDERPAID, before.getUnderpaidManagers(), after.getUnderpaidManagers(), appeared, cleared);
+        compare(OrgDelta.OVERPAID, before.getOverpaidManagers(), after.getOverpaidManagers(), appeared, cleared);
+        compare(OrgDelta.DEEP, before.getLongReportingLines(), after.getLongReportingLines(), appeared, cleared);
+
+        Set<String> was = issues(before);
+        Set<String> is = issues(after);
+        List<String> issuesAppeared = new ArrayList<>();
+        for (String s : is) if (!was.contains(s)) issuesAppeared.add(s);
+        List<String> issuesCleared = new ArrayList<>();
+        for (String s : was) if (!is.contains(s)) issuesCleared.add(s);
+
+        return new OrgDelta(added, removed, salaryChanges, managerMoves, appeared, cleared, issuesAppeared, issuesCleared);
+    }
+
+    // Matched by employee id; a flagged employee whose record changed is still the same finding.
+    private static void compare(String category, Map<Employee, ? extends Number> before,
+                                Map<Employee, ? extends Number> after,
+                                List<OrgDelta.Finding> appeared, List<OrgDelta.Finding> cleared) {
+        Set<Long> was = new HashSet<>();
+        for (Employee e : before.keySet()) was.add(e.id());
+        Set<Long> is = new HashSet<>();
+        for (Employee e : after.keySet()) is.add(e.id());
+
+        after.forEach((e, v) -> {
+            if (!was.contains(e.id())) appeared.add(new OrgDelta.Finding(category, e, v.doubleValue()));
+        });
+        before.forEach((e, v) -> {
+            if (!is.contains(e.id())) cleared.add(new OrgDelta.Finding(category, e, v.doubleValue()));
+        });
+    }
+
+    private static Set<String> issues(AnalysisReport report) {
+        Set<String> issues = new LinkedHashSet<>();
+        issues.addAll(report.getInvalidManagerReferences());
+        issues.addAll(report.getDuplicateIds());
+        issues.addAll(report.getCircularReferences());
+        issues.addAll(report.getCutOffEmployees());
+        return issues;
+    }
+}
@@ -0,0 +1,144 @@
+package com.company.organalyzer.service;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.company.organalyzer.service.SnapshotWriter.HEADER_BYTES;
+import static com.company.organalyzer.service.SnapshotWriter.MAGIC;
+import static com.company.organalyzer.service.SnapshotWriter.VERSION;
+
+/*
+ * Loads a snapshot written by SnapshotWriter straight into a ColumnarEmployeeRepository.
+ * Each section is memory-mapped and bulk-copied into its column; manager links, subordinate
+ * offsets and the id index come from the file, so nothing is parsed or re-resolved. Names
+ * are decoded once per distinct value and shared between employees.
+ */
+public final class SnapshotReader {
+
+    // Elements per mapping, keeping every mapped region well under 2 GB.
+    private static final int MAP_ELEMENTS = 1 << 27;
+
+    private final FileChannel ch;
+    private final long fileSize;
+    private long pos;
+
+    private SnapshotReader(FileChannel ch) throws IOException {
+        this.ch = ch;
+        this.fileSize = ch.size();
+    }
+
+    public static ColumnarEmployeeRepository read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SnapshotReader(ch).read();
+        }
+    }
+
+    private ColumnarEmployeeRepository read() throws IOException {
+        MappedByteBuffer header = map(HEADER_BYTES);
+        if (header.getLong() != MAGIC) throw new IOException("Not an org snapshot");
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version: " + version);
+
+        int n = header.getInt();
+        int ceo = header.getInt();
+        int childCount = header.getInt();
+        int indexCapacity = header.getInt();
+        int indexSize = header.getInt();
+        if (n < 0 || childCount < 0 || indexCapacity <= 0) throw new IOException("Corrupt snapshot header");
+
+        long[] ids = readLongs(n);
+        long[] managerIds = readLongs(n);
+        double[] salaries = readDoubles(n);
+        int[] firstIds = readInts(n);
+        int[] lastIds = readInts(n);
+        int[] parent = readInts(n);
+        int[] childOffsets = readInts(n + 1);
+        int[] children = readInts(childCount);
+        long[] indexKeys = readLongs(indexCapacity);
+        int[] indexValues = readInts(indexCapacity);
+
+        String[] names = readStrings().toArray(new String[0]);
+        List<String> invalidManagers = readStrings();
+        int duplicateCount = map(4).getInt();
+        if (duplicateCount < 0) throw new IOException("Corrupt snapshot duplicates");
+        long[] duplicateIds = readLongs(duplicateCount);
+        List<Long> duplicates = new ArrayList<>(duplicateCount);
+        for (long id : duplicateIds) duplicates.add(id);
+
+        String[] firstNames = new String[n];
+        String[] lastNames = new String[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                firstNames[i] = names[firstIds[i]];
+                lastNames[i] = names[lastIds[i]];
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt snapshot name table", e);
+        }
+
+        return new ColumnarEmployeeRepository(ids, managerIds, salaries, firstNames, lastNames,
+                parent, childOffsets, children, ceo, new LongIndex(indexKeys, indexValues, indexSize),
+                invalidManagers, duplicates);
+    }
+
+    private long[] readLongs(int count) throws IOException {
+        long[] out = new long[count];
+        for (int off = 0; off < count; off += MAP_ELEMENTS) {
+            int len = Math.min(MAP_ELEMENTS, count - off);
+            map(8L * len).asLongBuffer().get(out, off, len);
+        }
+        return out;
+    }
+
+    private double[] readDoubles(int count) throws IOException {
+        double[] out = new double[count];
+        for (int off = 0; off < count; off += MAP_ELEMENTS) {
+            int len = Math.min(MAP_ELEMENTS, count - off);
+            map(8L * len).asDoubleBuffer().get(out, off, len);
+        }
+        return out;
+    }
+
+    private int[] readInts(int count) throws IOException {
+        int[] out = new int[count];
+        for (int off = 0; off < count; off += MAP_ELEMENTS) {
+            int len = Math.min(MAP_ELEMENTS, count - off);
+            map(4L * len).asIntBuffer().get(out, off, len);
+        }
+        return out;
+    }
+
+    private List<String> readStrings() throws IOException {
+        MappedByteBuffer head = map(12);
+        int count = head.getInt();
+        long total = head.getLong();
+        if (count < 0 || total < 0 || total > Integer.MAX_VALUE) throw new IOException("Corrupt snapshot strings");
+
+        int[] lengths = readInts(count);
+        byte[] bytes = new byte[(int) total];
+        if (total > 0) map(total).get(bytes);
+
+        List<String> strings = new ArrayList<>(count);
+        int off = 0;
+        for (int len : lengths) {
+            if (len < 0 || off + len > bytes.length) throw new IOException("Corrupt snapshot strings");
+            strings.add(new String(bytes, off, len, StandardCharsets.UTF_8));
+            off += len;
+        }
+        return strings;
+    }
+
+    private MappedByteBuffer map(long bytes) throws IOException {
+        if (pos + bytes > fileSize) throw new IOException("Truncated snapshot at offset " + pos);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, bytes);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        pos += bytes;
+        return buf;
+    }
+}
@@ -0,0 +1,138 @@
+package com.company.organalyzer.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+ * Writes an org as a binary snapshot that SnapshotReader maps back in without parsing.
+ *
+ * Layout (little-endian):
+ *   header    magic "ORGSNAP1", version, size, ceo, child count, index capacity, index size
+ *   columns   ids, manager ids, salaries, first/last name ids, parent,
+ *             child offsets (size + 1), children, id index keys and values
+ *   strings   name table, invalid manager messages; each as count, total bytes,
+ *             int lengths, then the UTF-8 bytes
+ *   duplicates count, then the repeated ids
+ */
+public final class SnapshotWriter {
+
+    static final long MAGIC = 0x3150414E5347524FL;      // "ORGSNAP1" read little-endian
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 8 + 6 * 4;
+
+    private final FileChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+    private SnapshotWriter(FileChannel ch) {
+        this.ch = ch;
+    }
+
+    public static void write(EmployeeRepository repo, Path file) throws IOException {
+        var org = ColumnarEmployeeRepository.of(repo);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            new SnapshotWriter(ch).write(org);
+        }
+    }
+
+    private void write(ColumnarEmployeeRepository org) throws IOException {
+        int n = org.size();
+        int childCount = n == 0 ? 0 : org.childEnd(n - 1);
+        LongIndex index = org.index();
+
+        Map<String, Integer> nameIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] firstIds = new int[n];
+        int[] lastIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            firstIds[i] = nameId(org.firstName(i), nameIds, names);
+            lastIds[i] = nameId(org.lastName(i), nameIds, names);
+        }
+
+        ensure(HEADER_BYTES);
+        buf.putLong(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(n);
+        buf.putInt(org.ceoIndex());
+        buf.putInt(childCount);
+        buf.putInt(index.keys().length);
+        buf.putInt(index.size());
+
+        for (int i = 0; i < n; i++) putLong(org.id(i));
+        for (int i = 0; i < n; i++) putLong(org.managerId(i));
+        for (int i = 0; i < n; i++) putLong(Double.doubleToRawLongBits(org.salary(i)));
+        for (int i = 0; i < n; i++) putInt(firstIds[i]);
+        for (int i = 0; i < n; i++) putInt(lastIds[i]);
+        for (int i = 0; i < n; i++) putInt(org.parent(i));
+        for (int i = 0; i < n; i++) putInt(org.childStart(i));
+        putInt(childCount);
+        for (int k = 0; k < childCount; k++) putInt(org.child(k));
+        for (long key : index.keys()) putLong(key);
+        for (int value : index.values()) putInt(value);
+
+        putStrings(names);
+        putStrings(org.getInvalidManagers());
+        putInt(org.getDuplicates().size());
+        for (long id : org.getDuplicates()) putLong(id);
+
+        drain();
+    }
+
+    private static int nameId(String name, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    private void putStrings(List<String> strings) throws IOException {
+        byte[][] encoded = new byte[strings.size()][];
+        long total = 0;
+        for (int k = 0; k < encoded.length; k++) {
+            encoded[k] = strings.get(k).getBytes(StandardCharsets.UTF_8);
+            total += encoded[k].length;
+        }
+
+        putInt(encoded.length);
+        putLong(total);
+        for (byte[] b : encoded) putInt(b.length);
+        for (byte[] b : encoded) {
+            int off = 0;
+            while (off < b.length) {
+                if (!buf.hasRemaining()) drain();
+                int len = Math.min(buf.remaining(), b.length - off);
+                buf.put(b, off, len);
+                off += len;
+            }
+        }
+    }
+
+    private void putLong(long v) throws IOException {
+        ensure(8);
+        buf.putLong(v);
+    }
+
+    private void putInt(int v) throws IOException {
+        ensure(4);
+        buf.putInt(v);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+}
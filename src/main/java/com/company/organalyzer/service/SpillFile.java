@@ -0,0 +1,102 @@
+package com.company.organalyzer.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A temporary file of fixed-width records of longs, written once and then read front to back.
+final class SpillFile {
+
+    static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path path;
+    private final int width;
+    private long records;
+
+    private SpillFile(Path path, int width) {
+        this.path = path;
+        this.width = width;
+    }
+
+    static SpillFile create(Path dir, int width) throws IOException {
+        return new SpillFile(Files.createTempFile(dir, "spill", ".bin"), width);
+    }
+
+    long records() { return records; }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    Writer writer() throws IOException {
+        return new Writer();
+    }
+
+    Reader reader() throws IOException {
+        return new Reader();
+    }
+
+    final class Writer implements AutoCloseable {
+
+        private final FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+
+        private Writer() throws IOException {
+            records = 0;
+        }
+
+        void write(long[] rec) throws IOException {
+            if (buf.remaining() < width * 8) drain();
+            for (int k = 0; k < width; k++) buf.putLong(rec[k]);
+            records++;
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain();
+            ch.close();
+        }
+    }
+
+    final class Reader implements ExternalSorter.Cursor {
+
+        private final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+
+        private Reader() throws IOException {
+            buf.flip();
+        }
+
+        @Override
+        public boolean next(long[] rec) throws IOException {
+            if (buf.remaining() < width * 8) {
+                buf.compact();
+                while (buf.hasRemaining() && ch.read(buf) > 0) {
+                    // refill the whole buffer
+                }
+                buf.flip();
+                if (buf.remaining() < width * 8) {
+                    if (buf.hasRemaining()) throw new IOException("Truncated spill file " + path);
+                    return false;
+                }
+            }
+            for (int k = 0; k < width; k++) rec[k] = buf.getLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+}
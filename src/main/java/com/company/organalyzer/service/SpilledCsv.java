@@ -0,0 +1,90 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.metrics.Metrics;
+import com.company.organalyzer.metrics.Stage;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.parser.NameDictionary;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * A CSV read once for out-of-core passes: every row becomes an [id, row, manager id, salary]
+ * record in a sorter keyed by (id, row), and its names go to their own file in row order,
+ * so names are only read back for the few rows that end up in a result.
+ */
+final class SpilledCsv {
+
+    final ExternalSorter byId;
+    final List<String> errors;
+    final long rows;
+    private final Path names;
+
+    private SpilledCsv(ExternalSorter byId, List<String> errors, long rows, Path names) {
+        this.byId = byId;
+        this.errors = errors;
+        this.rows = rows;
+        this.names = names;
+    }
+
+    // Interning is capped at maxNames so the name dictionary stays a small share of the budget.
+    // Stops at the first row past Integer.MAX_VALUE, since reports count rows in ints.
+    static SpilledCsv parse(Path csv, Path dir, long sortBytes, int maxNames, String stageName) throws IOException {
+        ExternalSorter byId = new ExternalSorter(dir, 4, 2, sortBytes);
+        Path names = Files.createTempFile(dir, "names", ".bin");
+        long[] rec = new long[4];
+        long[] rows = new long[1];
+        List<String> errors;
+        try (Stage stage = Metrics.stage(stageName);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(names), SpillFile.BUFFER_BYTES))) {
+            errors = CsvEmployeeParser.parse(csv, e -> {
+                try {
+                    if (rows[0] == Integer.MAX_VALUE) throw tooManyRows(csv);
+                    rec[0] = e.id();
+                    rec[1] = rows[0];
+                    rec[2] = ColumnarEmployeeRepository.managerColumn(e.managerId());
+                    rec[3] = Double.doubleToRawLongBits(e.salary());
+                    byId.add(rec);
+                    out.writeUTF(e.firstName());
+                    out.writeUTF(e.lastName());
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, new NameDictionary(maxNames));
+            stage.rows(rows[0]);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new SpilledCsv(byId, errors, rows[0], names);
+    }
+
+    static IOException tooManyRows(Path csv) {
+        return new IOException("More than " + Integer.MAX_VALUE + " rows in " + csv);
+    }
+
+    // First and last names of the given rows, in one pass over the names file.
+    Map<Long, String[]> names(long[] wanted) throws IOException {
+        long[] sorted = wanted.clone();
+        Arrays.sort(sorted);
+
+        Map<Long, String[]> named = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(names), SpillFile.BUFFER_BYTES))) {
+            long row = 0;
+            for (long want : sorted) {
+                if (named.containsKey(want)) continue;
+                for (; row < want; row++) {
+                    in.readUTF();
+                    in.readUTF();
+                }
+                named.put(want, new String[] {in.readUTF(), in.readUTF()});
+                row++;
+            }
+        }
+        return named;
+    }
+}
@@ -0,0 +1,110 @@
+package com.company.organalyzer.service;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+
+/*
+ * Payroll, headcount, average salary and depth for every manager's whole subtree (the
+ * manager included), computed in one post-order pass over the HierarchyIndex's Euler tour.
+ *
+ * Subtrees are contiguous ranges of the tour, so headcount is the range length and
+ * salary changes are kept in a Fenwick tree over tour positions: updateSalary and every
+ * payroll query are O(log n), on top of the totals from the initial pass. The index is
+ * not thread-safe once salaries are updated. Employees on or under a circular chain have
+ * no subtree and are rejected.
+ */
+public final class SubtreeAggregateIndex {
+
+    private final HierarchyIndex hierarchy;
+    private final double[] salary;
+    private final double[] payroll;     // subtree totals as of build
+    private final int[] height;         // levels below the manager to their deepest report
+    private double[] deltas;            // Fenwick tree over tour positions, created on first update
+
+    private SubtreeAggregateIndex(HierarchyIndex hierarchy) {
+        this.hierarchy = hierarchy;
+        ColumnarEmployeeRepository org = hierarchy.org();
+        int n = org.size();
+
+        salary = new double[n];
+        payroll = new double[n];
+        height = new int[n];
+
+        int[] order = new int[n];
+        int visited = 0;
+        for (int i = 0; i < n; i++) {
+            salary[i] = org.salary(i);
+            if (hierarchy.indexed(i)) {
+                order[hierarchy.enter(i)] = i;
+                visited++;
+            }
+        }
+
+        // reverse visiting order: every report is finished before its manager
+        for (int t = visited - 1; t >= 0; t--) {
+            int v = order[t];
+            payroll[v] += salary[v];
+            int p = org.parent(v);
+            if (p != NONE) {
+                payroll[p] += payroll[v];
+                height[p] = Math.max(height[p], height[v] + 1);
+            }
+        }
+    }
+
+    public static SubtreeAggregateIndex build(EmployeeRepository repo) {
+        return build(HierarchyIndex.build(repo));
+    }
+
+    public static SubtreeAggregateIndex build(HierarchyIndex hierarchy) {
+        return new SubtreeAggregateIndex(hierarchy);
+    }
+
+    public HierarchyIndex hierarchy() { return hierarchy; }
+
+    public double payroll(int i) {
+        require(i);
+        if (deltas == null) return payroll[i];
+        return payroll[i] + prefix(hierarchy.exit(i)) - prefix(hierarchy.enter(i));
+    }
+
+    public int headcount(int i) {
+        require(i);
+        return hierarchy.exit(i) - hierarchy.enter(i);
+    }
+
+    public double averageSalary(int i) {
+        return payroll(i) / headcount(i);
+    }
+
+    // 0 for employees without reports.
+    public int maxDepthBelow(int i) {
+        require(i);
+        return height[i];
+    }
+
+    public double salary(int i) { return salary[i]; }
+
+    public void updateSalary(int i, double newSalary) {
+        if (newSalary <= 0) throw new IllegalArgumentException("Salary must be positive: " + newSalary);
+        double delta = newSalary - salary[i];
+        salary[i] = newSalary;
+        if (!hierarchy.indexed(i)) return;
+
+        if (deltas == null) deltas = new double[salary.length + 1];
+        for (int k = hierarchy.enter(i) + 1; k < deltas.length; k += k & -k) deltas[k] += delta;
+    }
+
+    // sum of updates at tour positions [0, end)
+    private double prefix(int end) {
+        double sum = 0;
+        for (int k = end; k > 0; k -= k & -k) sum += deltas[k];
+        return sum;
+    }
+
+    private void require(int i) {
+        if (!hierarchy.indexed(i)) {
+            throw new IllegalArgumentException("Employee " + hierarchy.org().id(i)
+                    + " is on or under a circular reporting chain");
+        }
+    }
+}
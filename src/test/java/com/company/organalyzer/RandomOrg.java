@@ -0,0 +1,114 @@
+package com.company.organalyzer;
+
+import com.company.organalyzer.model.Employee;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Random orgs for tests that check one way of analyzing against another. Employee 1 is the
+ * CEO and ids 2..size follow in order, each reporting to a random earlier id unless a knob
+ * picks something else for it. Knobs are rows per thousand; the same seed gives the same org.
+ */
+public record RandomOrg(int size, long seed, int missing, int forward, int tops, int chained,
+                        int duplicates, int badRows, double salaryStep) {
+
+    public static final String HEADER = "Id,firstName,lastName,salary,managerId\n";
+
+    public static RandomOrg of(int size, long seed) {
+        return new RandomOrg(size, seed, 0, 0, 0, 0, 0, 0, 1);
+    }
+
+    // Managers no row has.
+    public RandomOrg missing(int perMille) {
+        return new RandomOrg(size, seed, perMille, forward, tops, chained, duplicates, badRows, salaryStep);
+    }
+
+    // Managers a few ids further on, which can close cycles.
+    public RandomOrg forward(int perMille) {
+        return new RandomOrg(size, seed, missing, perMille, tops, chained, duplicates, badRows, salaryStep);
+    }
+
+    // No manager, so more than one top-level employee.
+    public RandomOrg tops(int perMille) {
+        return new RandomOrg(size, seed, missing, forward, perMille, chained, duplicates, badRows, salaryStep);
+    }
+
+    // One of the three previous ids, for long reporting lines.
+    public RandomOrg chained(int perMille) {
+        return new RandomOrg(size, seed, missing, forward, tops, perMille, duplicates, badRows, salaryStep);
+    }
+
+    // A second row for the id right after the first, reporting to the CEO.
+    public RandomOrg duplicates(int perMille) {
+        return new RandomOrg(size, seed, missing, forward, tops, chained, perMille, badRows, salaryStep);
+    }
+
+    // A line the parser rejects after the row; only in csv() and rows().
+    public RandomOrg badRows(int perMille) {
+        return new RandomOrg(size, seed, missing, forward, tops, chained, duplicates, perMille, salaryStep);
+    }
+
+    // Salaries are 20,000 plus a multiple of the step below 120,000; a coarse step gives ties.
+    public RandomOrg salaryStep(double step) {
+        return new RandomOrg(size, seed, missing, forward, tops, chained, duplicates, badRows, step);
+    }
+
+    public List<Employee> employees() {
+        List<Employee> employees = new ArrayList<>();
+        for (Employee e : generate()) {
+            if (e != null) employees.add(e);
+        }
+        return employees;
+    }
+
+    // CSV lines without the header.
+    public String rows() {
+        StringBuilder sb = new StringBuilder();
+        for (Employee e : generate()) sb.append(e == null ? "bad,row\n" : row(e));
+        return sb.toString();
+    }
+
+    // One CSV line, for tests that derive rows of their own from generated ones.
+    public static String row(Employee e) {
+        return e.id() + "," + e.firstName() + "," + e.lastName() + "," + e.salary() + ","
+                + (e.managerId() == null ? "" : e.managerId()) + "\n";
+    }
+
+    public String csv() {
+        return HEADER + rows();
+    }
+
+    public Path write(Path file) throws IOException {
+        return Files.writeString(file, csv());
+    }
+
+    // Rows in file order; null stands for a bad line.
+    private List<Employee> generate() {
+        Random rnd = new Random(seed);
+        List<Employee> rows = new ArrayList<>(size);
+        rows.add(new Employee(1, "Ceo", "Top", 900_000, null));
+        for (long id = 2; id <= size; id++) {
+            int roll = rnd.nextInt(1000);
+            Long mgr;
+            if ((roll -= missing) < 0) mgr = size + 1 + (long) rnd.nextInt(50);
+            else if ((roll -= forward) < 0) mgr = id + 1 + rnd.nextInt(20);
+            else if ((roll -= tops) < 0) mgr = null;
+            else if ((roll -= chained) < 0) mgr = Math.max(1, id - 1 - rnd.nextInt(3));
+            else mgr = 1 + (long) rnd.nextInt((int) id - 1);
+
+            rows.add(new Employee(id, "F" + rnd.nextInt(300), "L" + rnd.nextInt(500), salary(rnd), mgr));
+            if (rnd.nextInt(1000) < duplicates) rows.add(new Employee(id, "Dup", "Row", salary(rnd), 1L));
+            if (rnd.nextInt(1000) < badRows) rows.add(null);
+        }
+        return rows;
+    }
+
+    private double salary(Random rnd) {
+        return 20_000 + salaryStep * rnd.nextInt((int) (120_000 / salaryStep));
+    }
+}
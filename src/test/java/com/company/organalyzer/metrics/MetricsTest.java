@@ -0,0 +1,104 @@
+package com.company.organalyzer.metrics;
+
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.report.ReportWriter;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void off() {
+        Metrics.disable();
+        Metrics.reset();
+    }
+
+    private void runPipeline() throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = ColumnarEmployeeRepository.builder(0);
+        CsvEmployeeParser.parse(in, builder::add);
+        var repo = builder.build();
+        var report = new OrganizationAnalyzer(repo).analyze(builder.added(), 0);
+        new ReportWriter(new StringWriter()).write(report);
+    }
+
+    @Test
+    void recordsEveryStageWhenEnabled() throws Exception {
+        Metrics.reset();
+        Metrics.enable();
+        runPipeline();
+
+        String json = Metrics.toJson();
+        assertTrue(json.startsWith("{\"stages\":[{\"name\":\"parse\",\"calls\":1,"), json);
+        int last = -1;
+        for (String stage : new String[] {"parse", "repository", "hierarchy", "rules", "report"}) {
+            int at = json.indexOf("{\"name\":\"" + stage + "\"");
+            assertTrue(at > last, stage + " missing or out of order in " + json);
+            last = at;
+        }
+        assertTrue(json.contains("\"employees\":17"), json);
+        assertTrue(json.contains("\"cycles\":1"), json);
+        assertTrue(json.contains("\"findings.underpaid\":4"), json);
+        assertTrue(json.contains("\"parseErrors\":"), json);
+        assertTrue(json.endsWith("}}"), json);
+
+        Path file = dir.resolve("metrics.json");
+        Metrics.writeJson(file);
+        assertEquals(json, Files.readString(file).strip());
+    }
+
+    @Test
+    void countsTheRepositoryOnceWhenAMapBasedOneIsAnalyzed() throws Exception {
+        Metrics.reset();
+        Metrics.enable();
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = EmployeeRepository.builder();
+        CsvEmployeeParser.parse(in, builder::add);
+        new OrganizationAnalyzer(builder.build()).analyze(builder.added(), 0);
+
+        String json = Metrics.toJson();
+        assertTrue(json.contains("{\"name\":\"repository\",\"calls\":1,"), json);
+    }
+
+    @Test
+    void recordsNothingWhenDisabled() throws Exception {
+        Metrics.reset();
+        Metrics.disable();
+        runPipeline();
+
+        assertSame(Stage.NOOP, Metrics.stage("parse"));
+        assertEquals("{\"stages\":[],\"peaks\":{}}", Metrics.toJson());
+    }
+
+    @Test
+    void addsUpRepeatedStages() {
+        Metrics.reset();
+        Metrics.enable();
+        for (int k = 0; k < 3; k++) {
+            try (Stage s = Metrics.stage("step")) {
+                s.rows(10);
+            }
+        }
+        Metrics.peak("queue", 7);
+        Metrics.peak("queue", 3);
+
+        String json = Metrics.toJson();
+        assertTrue(json.contains("{\"name\":\"step\",\"calls\":3,"), json);
+        assertTrue(json.contains("\"rows\":30,"), json);
+        assertTrue(json.contains("\"peaks\":{\"queue\":7}"), json);
+    }
+}
@@ -2,9 +2,14 @@ package com.company.organalyzer.parser;
 
 import com.company.organalyzer.model.Employee;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -137,6 +142,26 @@ class CsvEmployeeParserTest {
         assertTrue(result.errors().getFirst().contains("Line 2"));
     }
 
+    @Test
+    void failsIfManagerIdIsNotPositive(@TempDir Path dir) throws Exception {
+        // such rows load; no employee has the id, so they are invalid manager references
+        String csv = """
+                Id,firstName,lastName,salary,managerId
+                1,Good,One,50000,
+                2,Bad,Zero,40000,0
+                3,Bad,Min,40000,-9223372036854775808
+                """;
+        Path file = dir.resolve("employees.csv");
+        Files.writeString(file, csv);
+
+        for (var result : List.of(parse(csv), CsvEmployeeParser.parse(file))) {
+            assertTrue(result.errors().isEmpty(), result.errors().toString());
+            assertEquals(3, result.employees().size());
+            assertEquals(0L, result.employees().get(1).managerId());
+            assertEquals(Long.MIN_VALUE, result.employees().get(2).managerId());
+        }
+    }
+
     @Test
     void maintainsCorrectErrorLineNumbers() throws Exception {
         String csv = """
@@ -155,4 +180,118 @@ class CsvEmployeeParserTest {
         assertTrue(result.errors().get(0).startsWith("Line 3"));
         assertTrue(result.errors().get(1).startsWith("Line 5"));
     }
+
+    @Test
+    void mappedParseMatchesStreamParse(@TempDir Path dir) throws Exception {
+        String csv = "Id,firstName,lastName,salary,managerId\r\n"
+                + "1, José ,Müller,50000.50,\r\n"
+                + "2,Jane,Smith,6e4,1\n"
+                + "\r"
+                + "3,Bad,Salary,notanumber,1\r"
+                + "4,Short,Line\n"
+                + "   \t \n"
+                + "5,Neg,Salary,-0,1\n"
+                + "6,Plus,Sign,+1234.125,+1,extra,columns\n"
+                + "-7,Bad,Id,100,1\n"
+                + "8,Blank,Manager,70000,   \n"
+                + "9,Huge,Id,123456789012345678901,1\n"
+                + "10,Many,Digits,1234567.123456789,1\n"
+                + "11,Bad,Manager,70000,x1\n"
+                + "12,Empty,Salary,,1";
+
+        Path file = dir.resolve("employees.csv");
+        Files.writeString(file, csv);
+
+        var expected = parse(csv);
+        var mapped = CsvEmployeeParser.parse(file);
+
+        assertEquals(expected.employees(), mapped.employees());
+        assertEquals(expected.errors(), mapped.errors());
+        assertEquals(6, mapped.employees().size());
+    }
+
+    @Test
+    void mappedParseHandlesEmptyAndHeaderOnlyFiles(@TempDir Path dir) throws Exception {
+        Path empty = dir.resolve("empty.csv");
+        Files.writeString(empty, "");
+        Path headerOnly = dir.resolve("header.csv");
+        Files.writeString(headerOnly, "Id,firstName,lastName,salary,managerId\n");
+
+        assertTrue(CsvEmployeeParser.parse(empty).employees().isEmpty());
+        assertTrue(CsvEmployeeParser.parse(headerOnly).employees().isEmpty());
+        assertTrue(CsvEmployeeParser.parse(headerOnly).errors().isEmpty());
+    }
+
+    @Test
+    void parallelParseKeepsOrderAndLineNumbers(@TempDir Path dir) throws Exception {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\r\n");
+        for (int i = 1; i <= 500; i++) {
+            if (i % 37 == 0) csv.append("\n");
+            if (i % 11 == 0) csv.append(i).append(",Bad,Salary,n/a,1\r\n");
+            else csv.append(i).append(",First").append(i).append(",Last,").append(1000 + i)
+                    .append(",").append(i == 1 ? "" : String.valueOf(i / 2)).append("\n");
+        }
+
+        Path file = dir.resolve("employees.csv");
+        Files.writeString(file, csv);
+
+        var expected = parse(csv.toString());
+        var pool = new ForkJoinPool(4);
+        try {
+            for (long chunk : new long[]{1, 64, 1000, 1 << 20}) {
+                var parallel = CsvEmployeeParser.parseParallel(file, pool, chunk);
+                assertEquals(expected.employees(), parallel.employees());
+                assertEquals(expected.errors(), parallel.errors());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected, CsvEmployeeParser.parseParallel(file));
+    }
+
+    @Test
+    void repeatedNamesShareOneInstanceOnEveryPath(@TempDir Path dir) throws Exception {
+        StringBuilder csv = new StringBuilder("Id,firstName,lastName,salary,managerId\n");
+        String[] first = {"Ann", " José ", "Bob", "Zoë"};
+        String[] last = {"Lee", "Müller", "Lee ", ""};
+        for (int i = 1; i <= 400; i++) {
+            csv.append(i).append(',').append(first[i % 4]).append(',').append(last[i % 3])
+                    .append(",1000,").append(i == 1 ? "" : "1").append('\n');
+            if (i % 50 == 0) csv.append(i).append(",Bad,Lee,n/a,1e400\n");
+        }
+        Path file = dir.resolve("employees.csv");
+        Files.writeString(file, csv);
+
+        var stream = parse(csv.toString());
+        var mapped = CsvEmployeeParser.parse(file);
+        var pool = new ForkJoinPool(4);
+        CsvEmployeeParser.ParseResult parallel;
+        try {
+            parallel = CsvEmployeeParser.parseParallel(file, pool, 256);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (var result : List.of(stream, mapped, parallel)) {
+            assertEquals(stream.employees(), result.employees());
+            var employees = result.employees();
+            for (int i = 4; i < employees.size(); i++) {
+                assertSame(employees.get(i - 4).firstName(), employees.get(i).firstName());
+                assertSame(employees.get(i - 3).lastName(), employees.get(i).lastName());
+            }
+            assertEquals("José", employees.get(0).firstName());
+            assertEquals("Lee", employees.get(2).lastName());
+        }
+    }
+
+    @Test
+    void dictionaryForksAgreeOnInstances() {
+        var names = new NameDictionary();
+        var fork = names.fork();
+
+        String a = names.intern(new String("Chekov"));
+        assertSame(a, fork.intern(new String("Chekov")));
+        assertSame(a, names.intern(new String("Chekov")));
+        assertEquals(1, fork.size());
+    }
 }
@@ -0,0 +1,152 @@
+package com.company.organalyzer.report;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.RuleEngine;
+import com.company.organalyzer.rules.SpanOfControlRule;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingEncoderTest {
+
+    private static final Employee ANN = new Employee(2, "Ann \"Jo\"", "Lee, Jr", 55000, 1L);
+    private static final Finding.CircularChain LOOP = new Finding.CircularChain(List.of(15L, 16L, 17L));
+
+    private static final List<Finding> ALL = List.of(
+            new Finding.Underpaid(ANN, 5000),
+            new Finding.Overpaid(new Employee(1, "Ceo", "Boss", 1e7, null), 1.5),
+            new Finding.TooDeep(ANN, 2),
+            new Finding.RuleFinding(SpanOfControlRule.NAME, ANN, 3),
+            new Finding.InvalidManager(19, 999),
+            new Finding.DuplicateId(20),
+            LOOP,
+            new Finding.CutOff(18, LOOP));
+
+    @Test
+    void writesOneJsonObjectPerFinding() throws Exception {
+        StringWriter out = new StringWriter();
+        var encoder = new JsonLinesEncoder(out);
+        for (Finding f : ALL) encoder.accept(f);
+        encoder.flush();
+
+        assertEquals("""
+                {"type":"underpaid","employee":{"id":2,"firstName":"Ann \\"Jo\\"","lastName":"Lee, Jr","salary":55000.0,"managerId":1},"amount":5000.0}
+                {"type":"overpaid","employee":{"id":1,"firstName":"Ceo","lastName":"Boss","salary":1.0E7,"managerId":null},"amount":1.5}
+                {"type":"too_deep","employee":{"id":2,"firstName":"Ann \\"Jo\\"","lastName":"Lee, Jr","salary":55000.0,"managerId":1},"amount":2}
+                {"type":"span-of-control","employee":{"id":2,"firstName":"Ann \\"Jo\\"","lastName":"Lee, Jr","salary":55000.0,"managerId":1},"amount":3.0}
+                {"type":"invalid_manager","id":19,"managerId":999}
+                {"type":"duplicate_id","id":20}
+                {"type":"circular_chain","chain":[15,16,17]}
+                {"type":"cut_off","id":18,"chain":[15,16,17]}
+                """, out.toString());
+    }
+
+    @Test
+    void writesCsvRowsWithTheSameColumns() throws Exception {
+        StringWriter out = new StringWriter();
+        var encoder = new CsvEncoder(out);
+        for (Finding f : ALL) encoder.accept(f);
+        encoder.flush();
+
+        assertEquals("""
+                type,id,first_name,last_name,salary,manager_id,amount,chain
+                underpaid,2,"Ann ""Jo""\","Lee, Jr",55000.0,1,5000.0,
+                overpaid,1,Ceo,Boss,1.0E7,,1.5,
+                too_deep,2,"Ann ""Jo""\","Lee, Jr",55000.0,1,2,
+                span-of-control,2,"Ann ""Jo""\","Lee, Jr",55000.0,1,3.0,
+                invalid_manager,19,,,,999,,
+                duplicate_id,20,,,,,,
+                circular_chain,,,,,,,15 16 17
+                cut_off,18,,,,,,15 16 17
+                """, out.toString());
+        for (String line : out.toString().split("\n")) {
+            assertEquals(7, line.replaceAll("\"[^\"]*(\"\"[^\"]*)*\"", "").chars().filter(c -> c == ',').count(), line);
+        }
+    }
+
+    @Test
+    void escapesCustomRuleNamesAndWritesNonFiniteNumbersAsNull() throws Exception {
+        Employee huge = new Employee(3, "Big", "Pay", Double.POSITIVE_INFINITY, 1L);
+        List<Finding> odd = List.of(
+                new Finding.RuleFinding("pay \"gap\", by team", huge, Double.NaN),
+                new Finding.RuleFinding("line\nbreak", ANN, 1));
+
+        StringWriter json = new StringWriter();
+        var jsonEncoder = new JsonLinesEncoder(json);
+        for (Finding f : odd) jsonEncoder.accept(f);
+        jsonEncoder.flush();
+        assertEquals("""
+                {"type":"pay \\"gap\\", by team","employee":{"id":3,"firstName":"Big","lastName":"Pay","salary":null,"managerId":1},"amount":null}
+                {"type":"line\\nbreak","employee":{"id":2,"firstName":"Ann \\"Jo\\"","lastName":"Lee, Jr","salary":55000.0,"managerId":1},"amount":1.0}
+                """, json.toString());
+
+        StringWriter csv = new StringWriter();
+        var csvEncoder = new CsvEncoder(csv);
+        for (Finding f : odd) csvEncoder.accept(f);
+        csvEncoder.flush();
+        assertTrue(csv.toString().contains("\n\"pay \"\"gap\"\", by team\",3,Big,Pay,Infinity,1,NaN,\n"), csv.toString());
+        assertTrue(csv.toString().contains("\n\"line\nbreak\",2,"), csv.toString());
+    }
+
+    @Test
+    void streamsSampleFindingsWithoutAReport() throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = ColumnarEmployeeRepository.builder(0);
+        CsvEmployeeParser.parse(in, builder::add);
+        var analyzer = new OrganizationAnalyzer(builder.build());
+
+        StringWriter out = new StringWriter();
+        long written = analyzer.streamFindings(new JsonLinesEncoder(out));
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(written, lines.length);
+        assertTrue(Arrays.asList(lines).contains("{\"type\":\"invalid_manager\",\"id\":19,\"managerId\":999}"));
+        assertTrue(Arrays.asList(lines).contains("{\"type\":\"duplicate_id\",\"id\":20}"));
+        assertTrue(Arrays.asList(lines).contains("{\"type\":\"circular_chain\",\"chain\":[15,16,17]}"));
+    }
+
+    @Test
+    void streamsFindingsOfRegisteredCustomRules() throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = ColumnarEmployeeRepository.builder(0);
+        CsvEmployeeParser.parse(in, builder::add);
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS).register(new SpanOfControlRule(2));
+
+        List<Finding> streamed = new ArrayList<>();
+        new OrganizationAnalyzer(builder.build(), engine).streamFindings(streamed::add);
+
+        List<Finding> span = streamed.stream().filter(f -> f.type().equals(SpanOfControlRule.NAME)).toList();
+        assertFalse(span.isEmpty());
+        for (Finding f : span) {
+            var r = assertInstanceOf(Finding.RuleFinding.class, f);
+            assertTrue(r.amount() > 0, r.toString());
+        }
+    }
+
+    @Test
+    void manyFindingsStreamThroughWithoutBeingKept() throws Exception {
+        // a writer that only counts, so nothing but the encoder could hold on to findings
+        long[] chars = {0};
+        Writer counting = new Writer() {
+            @Override public void write(char[] buf, int off, int len) { chars[0] += len; }
+            @Override public void flush() {}
+            @Override public void close() {}
+        };
+        var encoder = new CsvEncoder(counting);
+        Employee e = new Employee(7, "F", "L", 40000, 1L);
+        for (int k = 0; k < 1_000_000; k++) encoder.accept(new Finding.Underpaid(e, k));
+        encoder.flush();
+
+        assertTrue(chars[0] > 1_000_000 * 20L);
+    }
+}
@@ -0,0 +1,116 @@
+package com.company.organalyzer.report;
+
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWriterTest {
+
+    private static String render(AnalysisReport report) throws Exception {
+        StringWriter out = new StringWriter();
+        new ReportWriter(out).write(report);
+        return out.toString();
+    }
+
+    @Test
+    void matchesToStringForSampleFile() throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = EmployeeRepository.builder();
+        var errors = CsvEmployeeParser.parse(in, builder::add);
+        var repo = builder.build();
+        AnalysisReport report = new OrganizationAnalyzer(repo).analyze(builder.added(), errors.size());
+
+        assertEquals(report.toString(), render(report));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ReportWriter(bytes).write(report);
+        assertArrayEquals(report.toString().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    }
+
+    @Test
+    void matchesToStringForEmptyReport() throws Exception {
+        var report = new AnalysisReport(Map.of(), Map.of(), Map.of(),
+                List.of(), List.of(), List.of(), List.of(), 0, 0);
+        assertEquals(report.toString(), render(report));
+    }
+
+    @Test
+    void depthHeadingFollowsTheConfiguredLimit() throws Exception {
+        var employees = new ArrayList<Employee>();
+        employees.add(new Employee(1, "CEO", "", 100000, null));
+        for (long id = 2; id <= 9; id++) employees.add(new Employee(id, "E", "", 50000, id - 1));
+        var report = new OrganizationAnalyzer(new EmployeeRepository(employees), new AnalysisThresholds(1.1, 1.6, 6))
+                .analyze(employees.size(), 0);
+
+        assertEquals(6, report.getMaxDepth());
+        assertEquals(2, report.getLongReportingLines().size());
+        assertTrue(render(report).contains("EMPLOYEES WITH TOO LONG REPORTING LINES (>6 levels):\n"));
+        assertEquals(report.toString(), render(report));
+    }
+
+    @Test
+    void matchesToStringAcrossAwkwardNumbers() throws Exception {
+        double[] amounts = {
+                0.004, 0.005, 0.015, 0.125, 0.994999, 0.995, 1.005, 2.675, 999.995, 1000,
+                1234567.445, 123456789.125, 999999999.995, 1e9, 12345678901.5, 1e15 + 0.5,
+                Double.MIN_VALUE, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN
+        };
+        double[] salaries = {0.5, 1.5, 2.5, 49999.5, 60000.49, 1e9 + 0.5, 1e300, 4.9e-324};
+
+        Map<Employee, Double> underpaid = new LinkedHashMap<>();
+        Map<Employee, Double> overpaid = new LinkedHashMap<>();
+        Map<Employee, Integer> deep = new LinkedHashMap<>();
+        long id = 1;
+        for (double amount : amounts) {
+            for (double salary : salaries) {
+                Employee e = new Employee(id++, "Ann", "Lee", salary, id % 3 == 0 ? null : id - 1);
+                underpaid.put(e, amount);
+                overpaid.put(e, -amount);
+                deep.put(e, (int) id);
+            }
+        }
+
+        Random rnd = new Random(7);
+        for (int k = 0; k < 20_000; k++) {
+            Employee e = new Employee(id++, "R", "S", 1 + rnd.nextDouble() * 300000, 1L);
+            underpaid.put(e, rnd.nextDouble() * Math.pow(10, rnd.nextInt(12)));
+            overpaid.put(e, Math.round(rnd.nextDouble() * 1e6) / 1000.0 + 0.005);
+        }
+
+        var report = new AnalysisReport(underpaid, overpaid, deep,
+                List.of("Employee 5 references missing manager ID: 99"), List.of("Duplicate employee ID: 3"),
+                List.of("Circular reporting chain detected: 1 → 2 → 1"),
+                List.of("Employee 3 is cut off from the CEO by circular chain 1 → 2 → 1"), 1234567, 89);
+
+        assertEquals(report.toString(), render(report));
+    }
+
+    @Test
+    void followsDefaultLocaleLikeToString() throws Exception {
+        Locale previous = Locale.getDefault();
+        try {
+            for (Locale locale : List.of(Locale.GERMANY, Locale.forLanguageTag("fr-CH"), Locale.forLanguageTag("ar-EG"),
+                    Locale.forLanguageTag("hi-IN-u-nu-deva"))) {
+                Locale.setDefault(locale);
+                Employee e = new Employee(1234567, "Zoë", "Ünal", 123456.5, 7L);
+                var report = new AnalysisReport(Map.of(e, 1234.565), Map.of(e, 0.125), Map.of(e, 2),
+                        List.of(), List.of(), List.of(), List.of(), 3, 0);
+                assertEquals(report.toString(), render(report), locale.toString());
+            }
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
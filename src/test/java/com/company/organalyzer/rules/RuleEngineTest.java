@@ -0,0 +1,211 @@
+package com.company.organalyzer.rules;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.service.ColumnarEmployeeRepository;
+import com.company.organalyzer.service.EmployeeRepository;
+import com.company.organalyzer.service.HierarchyEngine;
+import com.company.organalyzer.service.OrganizationAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEngineTest {
+
+    private static final List<Employee> ORG = List.of(
+            new Employee(1, "CEO", "", 200000, null),
+            new Employee(2, "Mgr", "", 50000, 1L),
+            new Employee(3, "Star", "", 90000, 2L),
+            new Employee(4, "Dev", "", 40000, 2L),
+            new Employee(5, "Dev", "", 40000, 2L),
+            new Employee(6, "Intern", "", 30000, 3L),
+            new Employee(7, "Loop", "", 10000, 8L),
+            new Employee(8, "Loop", "", 10000, 7L)
+    );
+
+    private static Map<Long, Double> flagged(RuleResults results, EmployeeRepository repo, String rule) {
+        List<Employee> employees = List.copyOf(repo.allEmployees());
+        Map<Long, Double> out = new LinkedHashMap<>();
+        var f = results.get(rule);
+        for (int k = 0; k < f.size(); k++) out.put(employees.get(f.index(k)).id(), f.amount(k));
+        return out;
+    }
+
+    @Test
+    void runsBuiltInRulesTogether() {
+        var repo = new EmployeeRepository(ORG);
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS)
+                .register(new SpanOfControlRule(2))
+                .register(new SalaryInversionRule())
+                .register(new SkipLevelRatioRule(0.4));
+
+        RuleResults results = engine.evaluate(repo);
+
+        assertEquals(Map.of(2L, 18000.0), flagged(results, repo, UnderpaidRule.NAME));
+        assertEquals(Map.of(3L, 45000.0), flagged(results, repo, OverpaidRule.NAME));
+        assertEquals(Map.of(2L, 1.0), flagged(results, repo, SpanOfControlRule.NAME));
+        assertEquals(Map.of(2L, 40000.0), flagged(results, repo, SalaryInversionRule.NAME));
+        assertEquals(Map.of(3L, 10000.0, 6L, 10000.0), flagged(results, repo, SkipLevelRatioRule.NAME));
+        assertTrue(flagged(results, repo, ReportingDepthRule.NAME).isEmpty());
+    }
+
+    @Test
+    void thresholdsCanChangeAtRuntime() {
+        var repo = new EmployeeRepository(ORG);
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS).register(new SpanOfControlRule(5));
+
+        engine.reconfigure(new AnalysisThresholds(0.8, 3.0, 2));
+        RuleResults results = engine.evaluate(repo);
+
+        assertTrue(flagged(results, repo, UnderpaidRule.NAME).isEmpty());
+        assertTrue(flagged(results, repo, OverpaidRule.NAME).isEmpty());
+        assertEquals(Map.of(6L, 1.0), flagged(results, repo, ReportingDepthRule.NAME));
+        assertEquals(4, engine.rules().size());
+
+        assertTrue(engine.unregister(SpanOfControlRule.NAME));
+        assertFalse(engine.evaluate(repo).rules().contains(SpanOfControlRule.NAME));
+    }
+
+    @Test
+    void analyzerUsesConfiguredThresholds() {
+        var repo = new EmployeeRepository(ORG);
+        var report = new OrganizationAnalyzer(repo, new AnalysisThresholds(0.8, 3.0, 2)).analyze(8, 0);
+
+        assertTrue(report.getUnderpaidManagers().isEmpty());
+        assertEquals(List.of(6L), report.getLongReportingLines().keySet().stream().map(Employee::id).toList());
+    }
+
+    @Test
+    void rulesOnlySeeWhatTheyDeclare() {
+        Rule sneaky = new Rule() {
+            @Override public String name() { return "sneaky"; }
+            @Override public Set<Need> needs() { return Set.of(Need.PARENT); }
+            @Override public double check(OrgNode node) { return node.depth(); }
+        };
+        var engine = new RuleEngine(List.of(sneaky));
+
+        var e = assertThrows(IllegalStateException.class, () -> engine.evaluate(new EmployeeRepository(ORG)));
+        assertEquals("Rule sneaky did not declare DEPTH", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> engine.register(sneaky));
+    }
+
+    @Test
+    void rejectsInconsistentThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisThresholds(1.5, 1.2, 4));
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisThresholds(1.2, 1.5, -1));
+
+        var props = new Properties();
+        props.setProperty("analysis.maxDepth", "6");
+        assertEquals(new AnalysisThresholds(1.20, 1.50, 6), AnalysisThresholds.fromProperties(props));
+    }
+
+    @Test
+    void rankedRangesMergeToTheSameTopK() {
+        var builder = ColumnarEmployeeRepository.builder(0);
+        RandomOrg.of(70_000, 3).salaryStep(1000).employees().forEach(builder::add);
+        var org = builder.build();
+        var hierarchy = HierarchyEngine.run(org, false);
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS);
+
+        RuleResults whole = engine.evaluateTop(org, hierarchy, 0, org.size(), 50, Map.of());
+        List<RuleResults> parts = new ArrayList<>();
+        for (int from = 0; from < org.size(); from += 16_384) {
+            parts.add(engine.evaluateTop(org, hierarchy, from, Math.min(org.size(), from + 16_384), 50, Map.of()));
+        }
+        RuleResults merged = RuleResults.concat(parts);
+        RuleResults all = engine.evaluate(org, hierarchy, 0, org.size());
+
+        for (String rule : whole.rules()) {
+            var a = whole.get(rule);
+            var b = merged.get(rule);
+            assertEquals(all.get(rule).size(), a.total(), rule);
+            assertEquals(a.total(), b.total(), rule);
+            assertEquals(Math.min(50, all.get(rule).size()), a.size(), rule);
+            for (int k = 0; k < a.size(); k++) {
+                assertEquals(a.index(k), b.index(k), rule);
+                assertEquals(a.amount(k), b.amount(k), rule);
+                if (k > 0) assertTrue(new Rank(a.amount(k - 1), a.index(k - 1)).before(a.amount(k), a.index(k)), rule);
+            }
+        }
+    }
+
+    @Test
+    void rankTokensRoundTrip() {
+        Rank rank = new Rank(1234.5, 42);
+        assertEquals(rank, Rank.parse(rank.token()));
+        assertTrue(rank.before(1234.5, 43));
+        assertTrue(rank.before(1000, 1));
+        assertFalse(rank.before(1234.5, 42));
+        assertFalse(rank.before(2000, 99));
+        assertThrows(IllegalArgumentException.class, () -> Rank.parse("zz-1"));
+        assertThrows(IllegalArgumentException.class, () -> Rank.parse("10"));
+    }
+
+    @Test
+    void salaryBandsAreExactToTheCent() {
+        // 1.2 × 10002.20 and 1.5 × 70000.20 are whole cents; computed in doubles they land a hair off
+        var repo = new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 12002.64, null),
+                new Employee(2, "Dev", "", 10002.10, 1L),
+                new Employee(3, "Dev", "", 10002.30, 1L),
+                new Employee(4, "Mgr", "", 105000.30, 2L),
+                new Employee(5, "Dev", "", 70000.10, 4L),
+                new Employee(6, "Dev", "", 70000.20, 4L),
+                new Employee(7, "Dev", "", 70000.30, 4L),
+                new Employee(8, "Mgr", "", 12002.63, 3L),
+                new Employee(9, "Dev", "", 10002.10, 8L),
+                new Employee(10, "Dev", "", 10002.30, 8L)
+        ));
+        var org = ColumnarEmployeeRepository.of(repo);
+        assertEquals(21000060, org.subordinateCents(org.indexOf(4)));
+
+        RuleResults results = RuleEngine.standard(AnalysisThresholds.DEFAULTS).evaluate(repo);
+
+        Map<Long, Double> underpaid = flagged(results, repo, UnderpaidRule.NAME);
+        assertFalse(underpaid.containsKey(1L));
+        assertEquals(0.01, underpaid.get(8L));
+        assertFalse(flagged(results, repo, OverpaidRule.NAME).containsKey(4L));
+    }
+
+    @Test
+    void salaryBandsFallBackToDoublesPastWholeCents() {
+        // 10^17 is past what cents can hold, and two 5 × 10^16 salaries overflow a cent total
+        var repo = new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 1000, null),
+                new Employee(2, "Mgr", "", 5e16, 1L),
+                new Employee(3, "Mgr", "", 5e16, 1L),
+                new Employee(4, "Dev", "", 1e17, 2L)
+        ));
+        var org = ColumnarEmployeeRepository.of(repo);
+        assertEquals(ColumnarEmployeeRepository.NO_CENTS, ColumnarEmployeeRepository.toCents(Double.POSITIVE_INFINITY));
+        assertEquals(ColumnarEmployeeRepository.NO_CENTS, org.salaryCents(org.indexOf(4)));
+        assertEquals(ColumnarEmployeeRepository.NO_CENTS, org.subordinateCents(org.indexOf(1)));
+
+        RuleResults results = RuleEngine.standard(AnalysisThresholds.DEFAULTS).evaluate(repo);
+
+        Map<Long, Double> underpaid = flagged(results, repo, UnderpaidRule.NAME);
+        assertEquals(5e16 * 1.2 - 1000, underpaid.get(1L));
+        assertEquals(1e17 * 1.2 - 5e16, underpaid.get(2L));
+    }
+
+    @Test
+    void subordinateCentsChecksOnlyRangesThatCouldOverflow() {
+        // 4 × 10^18 cents each: two still fit in a long, three do not
+        var org = ColumnarEmployeeRepository.of(new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 1000, null),
+                new Employee(2, "Mgr", "", 1000, 1L),
+                new Employee(3, "Mgr", "", 1000, 1L),
+                new Employee(4, "Dev", "", 4e16, 2L),
+                new Employee(5, "Dev", "", 4e16, 2L),
+                new Employee(6, "Dev", "", 4e16, 3L),
+                new Employee(7, "Dev", "", 4e16, 3L),
+                new Employee(8, "Dev", "", 4e16, 3L)
+        )));
+        assertEquals(200000, org.subordinateCents(org.indexOf(1)));
+        assertEquals(8_000_000_000_000_000_000L, org.subordinateCents(org.indexOf(2)));
+        assertEquals(ColumnarEmployeeRepository.NO_CENTS, org.subordinateCents(org.indexOf(3)));
+        assertEquals(0, org.subordinateCents(org.indexOf(4)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.company.organalyzer.server;
+
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.UnderpaidRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServerTest {
+
+    private static final String CSV = """
+            Id,firstName,lastName,salary,managerId
+            1,Ada,Boss,100000,
+            2,Bo,Mid,40000,1
+            3,Cy,Low,50000,2
+            4,Di,Loop,60000,5
+            5,Ed,Loop,60000,4
+            6,Fa,Tail,30000,5
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(AnalysisServer server, String path) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void servesFindingsChainsAndReport() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        Files.writeString(csv, CSV);
+
+        try (var server = new AnalysisServer(csv, 0)) {
+            server.start();
+
+            var underpaid = get(server, "/underpaid");
+            assertEquals(200, underpaid.statusCode());
+            assertEquals("[{\"id\":2,\"firstName\":\"Bo\",\"lastName\":\"Mid\",\"salary\":40000.0,"
+                    + "\"managerId\":1,\"shortBy\":20000.0}]", underpaid.body());
+
+            assertEquals("{\"id\":3,\"depth\":2,\"reachesCeo\":true,\"inCycle\":false,\"cutOff\":false,\"chain\":["
+                    + "{\"id\":3,\"firstName\":\"Cy\",\"lastName\":\"Low\",\"salary\":50000.0,\"managerId\":2},"
+                    + "{\"id\":2,\"firstName\":\"Bo\",\"lastName\":\"Mid\",\"salary\":40000.0,\"managerId\":1},"
+                    + "{\"id\":1,\"firstName\":\"Ada\",\"lastName\":\"Boss\",\"salary\":100000.0,\"managerId\":null}]}",
+                    get(server, "/employees/3/chain").body());
+
+            String tail = get(server, "/employees/6/chain").body();
+            assertTrue(tail.startsWith("{\"id\":6,\"depth\":null,\"reachesCeo\":false,\"inCycle\":false,\"cutOff\":true"), tail);
+            assertTrue(get(server, "/employees/5/chain").body().contains("\"inCycle\":true,\"cutOff\":false"));
+            assertEquals(3, tail.split("\"firstName\"").length - 1);
+
+            assertEquals("{\"total\":1,\"next\":null,\"items\":[{\"id\":2,\"firstName\":\"Bo\",\"lastName\":\"Mid\","
+                    + "\"salary\":40000.0,\"managerId\":1,\"shortBy\":20000.0}]}", get(server, "/underpaid?limit=5").body());
+            assertEquals(400, get(server, "/underpaid?limit=0").statusCode());
+            assertEquals(400, get(server, "/overpaid?limit=2&cursor=bogus").statusCode());
+
+            assertEquals(404, get(server, "/employees/99/chain").statusCode());
+            assertEquals(400, get(server, "/employees/x/chain").statusCode());
+            assertTrue(get(server, "/report").body().contains("CIRCULAR REFERENCES DETECTED"));
+            assertTrue(get(server, "/status").body().startsWith("{\"version\":1,"));
+        }
+    }
+
+    @Test
+    void reloadsWhenTheFileChanges() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        Files.writeString(csv, CSV);
+
+        try (var server = new AnalysisServer(csv, 0)) {
+            server.start();
+            assertEquals("[]", get(server, "/deep").body());
+
+            StringBuilder deeper = new StringBuilder(CSV);
+            for (int id = 7; id <= 12; id++) {
+                deeper.append(id).append(",N,").append(id).append(",1000,").append(id == 7 ? 3 : id - 1).append('\n');
+            }
+            Path tmp = dir.resolve("employees.tmp");
+            Files.writeString(tmp, deeper);
+            Files.move(tmp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (server.version() == 1 && System.nanoTime() < deadline) Thread.sleep(50);
+
+            assertEquals(2, server.version());
+            assertTrue(get(server, "/deep").body().contains("\"id\":12"));
+            assertTrue(get(server, "/status").body().contains("\"employees\":12"));
+        }
+    }
+
+    @Test
+    void pagesUseTheRulesOfTheLoadedState() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        Files.writeString(csv, CSV);
+
+        try (var server = new AnalysisServer(csv, 0)) {
+            server.start();
+            String page = get(server, "/underpaid?limit=5").body();
+
+            // changes to the live rules wait for the next reload, in pages as in the full list
+            server.rules().reconfigure(new AnalysisThresholds(1.0, 1.5, 4));
+            assertEquals(page, get(server, "/underpaid?limit=5").body());
+            server.rules().unregister(UnderpaidRule.NAME);
+            assertEquals(page, get(server, "/underpaid?limit=5").body());
+
+            server.reload();
+            assertEquals("[]", get(server, "/underpaid").body());
+            var empty = get(server, "/underpaid?limit=5");
+            assertEquals(200, empty.statusCode());
+            assertEquals("{\"total\":0,\"next\":null,\"items\":[]}", empty.body());
+        }
+    }
+
+    @Test
+    void writesNonFiniteNumbersAsNull() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        Files.writeString(csv, """
+                Id,firstName,lastName,salary,managerId
+                1,Ada,Boss,100000,
+                2,Bo,Rich,1e400,1
+                """);
+
+        try (var server = new AnalysisServer(csv, 0)) {
+            server.start();
+            String expected = "{\"id\":1,\"firstName\":\"Ada\",\"lastName\":\"Boss\",\"salary\":100000.0,"
+                    + "\"managerId\":null,\"shortBy\":null}";
+            assertEquals("[" + expected + "]", get(server, "/underpaid").body());
+            assertEquals("{\"total\":1,\"next\":null,\"items\":[" + expected + "]}", get(server, "/underpaid?limit=1").body());
+            assertTrue(get(server, "/employees/2/chain").body().contains("\"salary\":null"));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarEmployeeRepositoryTest {
+
+    private static final List<Employee> EMPLOYEES = List.of(
+            new Employee(1, "CEO", "X", 100000, null),
+            new Employee(2, "Mgr1", "A", 50000, 1L),
+            new Employee(3, "Emp1", "B", 60000, 2L),
+            new Employee(4, "Mgr2", "C", 200000, 1L),
+            new Employee(5, "Emp2", "D", 80000, 4L),
+            new Employee(4, "Mgr2", "C2", 210000, 1L),   // duplicate
+            new Employee(6, "Lost", "E", 40000, 0L),     // invalid manager
+            new Employee(7, "Cyc", "F", 40000, 8L),
+            new Employee(8, "Cyc", "G", 40000, 7L),
+            new Employee(9, "Other", "Ceo", 40000, null)
+    );
+
+    private static ColumnarEmployeeRepository columnar(List<Employee> employees) {
+        var builder = ColumnarEmployeeRepository.builder(employees.size());
+        employees.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Test
+    void viewsMatchMapBackedRepository() {
+        var expected = new EmployeeRepository(EMPLOYEES);
+        var repo = columnar(EMPLOYEES);
+
+        assertEquals(List.copyOf(expected.allEmployees()), List.copyOf(repo.allEmployees()));
+        assertEquals(expected.allById(), repo.allById());
+        assertEquals(new ArrayList<>(expected.allById().keySet()), new ArrayList<>(repo.allById().keySet()));
+        assertEquals(expected.getCeo(), repo.getCeo());
+        assertEquals(expected.getInvalidManagers(), repo.getInvalidManagers());
+        assertEquals(expected.getDuplicateIds(), repo.getDuplicateIds());
+
+        for (Employee e : expected.allEmployees()) {
+            assertEquals(expected.getSubordinates(e.id()), repo.getSubordinates(e.id()));
+        }
+        assertEquals(List.of(), repo.getSubordinates(12345));
+        assertNull(repo.allById().get(12345L));
+    }
+
+    @Test
+    void exposesPrimitiveColumnsAndCsrChildren() {
+        var repo = columnar(EMPLOYEES);
+
+        assertEquals(9, repo.size());
+        int ceo = repo.ceoIndex();
+        assertEquals(1, repo.id(ceo));
+        assertEquals(ColumnarEmployeeRepository.NONE, repo.parent(ceo));
+
+        List<Long> ceoChildren = new ArrayList<>();
+        for (int k = repo.childStart(ceo); k < repo.childEnd(ceo); k++) {
+            ceoChildren.add(repo.id(repo.child(k)));
+        }
+        assertEquals(List.of(2L, 4L), ceoChildren);
+
+        int mgr2 = repo.indexOf(4);
+        assertEquals(210000, repo.salary(mgr2));
+        assertEquals(ceo, repo.parent(mgr2));
+        assertEquals(ColumnarEmployeeRepository.NONE, repo.indexOf(999));
+    }
+
+    @Test
+    void managerIdOfLongMinValueIsNotReadAsNoManager() {
+        var repo = columnar(List.of(
+                new Employee(1, "CEO", "X", 100000, null),
+                new Employee(2, "Odd", "Y", 40000, Long.MIN_VALUE)));
+
+        assertEquals(0, repo.ceoIndex());
+        assertEquals(ColumnarEmployeeRepository.NONE, repo.parent(1));
+        assertEquals(1, repo.getInvalidManagers().size());
+        assertTrue(repo.getInvalidManagers().getFirst().startsWith("Employee 2 "), repo.getInvalidManagers().toString());
+    }
+
+    @Test
+    void analyzerRunsUnchangedOnColumnarRepository() {
+        var expected = new OrganizationAnalyzer(new EmployeeRepository(EMPLOYEES)).analyze(10, 0);
+        var report = new OrganizationAnalyzer(columnar(EMPLOYEES)).analyze(10, 0);
+
+        assertEquals(expected.getUnderpaidManagers(), report.getUnderpaidManagers());
+        assertEquals(expected.getOverpaidManagers(), report.getOverpaidManagers());
+        assertEquals(expected.getLongReportingLines(), report.getLongReportingLines());
+        assertEquals(expected.getInvalidManagerReferences(), report.getInvalidManagerReferences());
+        assertEquals(expected.getCircularReferences(), report.getCircularReferences());
+    }
+
+    @Test
+    void ofReusesOrCopiesRepository() {
+        var columnar = columnar(EMPLOYEES);
+        assertSame(columnar, ColumnarEmployeeRepository.of(columnar));
+
+        var copy = ColumnarEmployeeRepository.of(new EmployeeRepository(EMPLOYEES));
+        assertEquals(columnar.allById(), copy.allById());
+        assertEquals(columnar.getDuplicateIds(), copy.getDuplicateIds());
+        assertEquals(columnar.getInvalidManagers(), copy.getInvalidManagers());
+    }
+}
@@ -0,0 +1,76 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeRepositoryTest {
+
+    private static final List<Employee> EMPLOYEES = List.of(
+            new Employee(1, "CEO", "X", 100000, null),
+            new Employee(2, "A", "", 50000, 1L),
+            new Employee(3, "B", "", 40000, 2L),
+            new Employee(2, "A2", "", 55000, 1L),   // duplicate, last wins
+            new Employee(4, "C", "", 45000, 99L),   // invalid manager
+            new Employee(5, "D", "", 45000, 1L)
+    );
+
+    @Test
+    void builderMatchesListConstructor() {
+        var expected = new EmployeeRepository(EMPLOYEES);
+
+        var builder = EmployeeRepository.builder();
+        EMPLOYEES.forEach(builder::add);
+        var repo = builder.build();
+
+        assertEquals(6, builder.added());
+        assertEquals(List.copyOf(expected.allEmployees()), List.copyOf(repo.allEmployees()));
+        assertEquals(expected.getCeo(), repo.getCeo());
+        assertEquals(expected.getSubordinates(1), repo.getSubordinates(1));
+        assertEquals(expected.getInvalidManagers(), repo.getInvalidManagers());
+        assertEquals(expected.getDuplicateIds(), repo.getDuplicateIds());
+
+        assertEquals("A2", repo.allById().get(2L).firstName());
+        assertEquals(List.of(2L, 5L), repo.getSubordinates(1).stream().map(Employee::id).toList());
+        assertEquals(List.of("Duplicate employee ID: 2"), repo.getDuplicateIds());
+        assertEquals(List.of("Employee 4 references missing manager ID: 99"), repo.getInvalidManagers());
+    }
+
+    @Test
+    void parserStreamsIntoBuilder() throws Exception {
+        String csv = """
+                Id,firstName,lastName,salary,managerId
+                1,John,Doe,50000,
+                2,Jane,Smith,60000,1
+                2,Jane,Again,61000,1
+                3,Bad,Salary,x,1
+                """;
+
+        var builder = EmployeeRepository.builder();
+        var errors = CsvEmployeeParser.parse(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), builder::add);
+        var repo = builder.build();
+
+        assertEquals(1, errors.size());
+        assertEquals(3, builder.added());
+        assertEquals(2, repo.allEmployees().size());
+        assertEquals(1, repo.getDuplicateIds().size());
+        assertEquals(1L, repo.getCeo().id());
+    }
+
+    @Test
+    void builderCannotBeReused() {
+        var builder = EmployeeRepository.builder();
+        builder.build();
+
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalStateException.class,
+                () -> builder.add(new Employee(1, "A", "B", 1000, null)));
+    }
+}
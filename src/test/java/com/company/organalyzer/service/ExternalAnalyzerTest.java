@@ -0,0 +1,94 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalAnalyzerTest {
+
+    @TempDir
+    Path dir;
+
+    private static AnalysisReport inMemory(Path csv, AnalysisThresholds thresholds) throws Exception {
+        var builder = ColumnarEmployeeRepository.builder(0);
+        var errors = CsvEmployeeParser.parse(csv, builder::add);
+        var repo = builder.build();
+        int invalid = errors.size() + repo.getInvalidManagers().size() + repo.getDuplicateIds().size();
+        return new OrganizationAnalyzer(repo, thresholds).analyze(builder.added(), invalid);
+    }
+
+    private void assertSameReport(AnalysisReport expected, AnalysisReport actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getUnderpaidManagers(), actual.getUnderpaidManagers());
+        assertEquals(expected.getOverpaidManagers(), actual.getOverpaidManagers());
+        assertEquals(expected.getLongReportingLines(), actual.getLongReportingLines());
+        assertEquals(expected.getCutOffEmployees(), actual.getCutOffEmployees());
+    }
+
+    @Test
+    void matchesInMemoryAnalysisOfSampleFile() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv")) {
+            Files.copy(in, csv);
+        }
+
+        var report = new ExternalAnalyzer(ExternalAnalyzer.MIN_BUDGET, dir).analyze(csv);
+
+        assertSameReport(inMemory(csv, AnalysisThresholds.DEFAULTS), report);
+    }
+
+    @Test
+    void matchesInMemoryAnalysisWhileSpillingToDisk() throws Exception {
+        // deep chains, several cycles with employees hanging under them, missing managers,
+        // extra top-level employees and duplicates, at a size that spills and merges in passes
+        Path file = RandomOrg.of(60_000, 19).missing(3).tops(1).forward(6).chained(590).duplicates(4).badRows(1)
+                .write(dir.resolve("large.csv"));
+
+        var thresholds = new AnalysisThresholds(1.1, 1.6, 6);
+        var report = new ExternalAnalyzer(ExternalAnalyzer.MIN_BUDGET, dir, thresholds).analyze(file);
+        var expected = inMemory(file, thresholds);
+
+        assertFalse(expected.getCircularReferences().isEmpty());
+        assertFalse(expected.getCutOffEmployees().isEmpty());
+        assertFalse(expected.getLongReportingLines().isEmpty());
+        assertSameReport(expected, report);
+
+        try (var left = Files.list(dir)) {
+            assertEquals(List.of(file), left.toList(), "spill files must be removed");
+        }
+    }
+
+    @Test
+    void matchesInMemoryAnalysisPastWholeCents() throws Exception {
+        Path file = dir.resolve("huge.csv");
+        Files.writeString(file, """
+                Id,firstName,lastName,salary,managerId
+                1,Ceo,Top,1000,
+                2,Big,One,5e16,1
+                3,Big,Two,5e16,1
+                4,Huge,Dev,1e17,2
+                5,Small,Dev,10,3
+                """);
+
+        var report = new ExternalAnalyzer(ExternalAnalyzer.MIN_BUDGET, dir).analyze(file);
+        var expected = inMemory(file, AnalysisThresholds.DEFAULTS);
+
+        assertEquals(2, expected.getUnderpaidManagers().size());
+        assertSameReport(expected, report);
+    }
+
+    @Test
+    void rejectsTooSmallBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalAnalyzer(1024, dir));
+    }
+}
@@ -0,0 +1,131 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchyEngineTest {
+
+    private static ColumnarEmployeeRepository columnar(List<Employee> employees) {
+        var builder = ColumnarEmployeeRepository.builder(employees.size());
+        employees.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Test
+    void computesDepthCyclesAndAveragesTogether() {
+        var org = columnar(List.of(
+                new Employee(1, "CEO", "", 100000, null),
+                new Employee(2, "A", "", 50000, 1L),
+                new Employee(3, "B", "", 40000, 2L),
+                new Employee(4, "C", "", 45000, 2L),
+                new Employee(10, "X", "", 1000, 11L),
+                new Employee(11, "Y", "", 1000, 12L),
+                new Employee(12, "Z", "", 1000, 10L),
+                new Employee(13, "Tail", "", 1000, 11L),
+                new Employee(14, "Orphan", "", 1000, 999L)
+        ));
+
+        var result = HierarchyEngine.run(org);
+
+        assertEquals(0, result.depth(org.indexOf(1)));
+        assertEquals(1, result.depth(org.indexOf(2)));
+        assertEquals(2, result.depth(org.indexOf(4)));
+        assertEquals(HierarchyEngine.UNREACHABLE, result.depth(org.indexOf(13)));
+        assertEquals(HierarchyEngine.UNREACHABLE, result.depth(org.indexOf(14)));
+
+        assertEquals(1, result.cycles().size());
+        assertEquals(List.of(10L, 11L, 12L), ids(org, result.cycles().getFirst()));
+        assertTrue(result.inCycle(org.indexOf(11)));
+        assertFalse(result.inCycle(org.indexOf(13)));
+        assertTrue(result.cutOffByCycle(org.indexOf(13)));
+        assertFalse(result.cutOffByCycle(org.indexOf(14)));
+        assertFalse(result.cutOffByCycle(org.indexOf(11)));
+
+        assertEquals(42500, result.subordinateAverage(org.indexOf(2)));
+        assertTrue(Double.isNaN(result.subordinateAverage(org.indexOf(3))));
+    }
+
+    @Test
+    void findsThousandsOfSmallCyclesInLinearTime() {
+        int pairs = 50_000;
+        var builder = ColumnarEmployeeRepository.builder(pairs * 3);
+        for (long k = 0; k < pairs; k++) {
+            long a = k * 3 + 1;
+            builder.add(a + 2, "T", "", 1000, a);     // tail seen before its cycle
+            builder.add(a, "A", "", 1000, a + 1);
+            builder.add(a + 1, "B", "", 1000, a);
+        }
+        var org = builder.build();
+
+        var result = HierarchyEngine.run(org);
+
+        assertEquals(pairs, result.cycles().size());
+        for (int[] cycle : result.cycles()) {
+            assertEquals(2, cycle.length);
+            assertTrue(cycle[0] < cycle[1]);
+        }
+        assertTrue(result.cutOffByCycle(org.indexOf(3)));
+    }
+
+    @Test
+    void handlesMillionLevelChainWithoutRecursion() {
+        int n = 1_000_000;
+        var builder = ColumnarEmployeeRepository.builder(n);
+        builder.add(1, "CEO", "", 1000, ColumnarEmployeeRepository.NO_MANAGER);
+        for (long id = 2; id <= n; id++) builder.add(id, "E", "", 1000, id - 1);
+        var org = builder.build();
+
+        var result = HierarchyEngine.run(org);
+
+        assertEquals(n - 1, result.depth(org.indexOf(n)));
+        assertTrue(result.cycles().isEmpty());
+    }
+
+    @Test
+    void findsLongCycleIteratively() {
+        int n = 200_000;
+        var builder = ColumnarEmployeeRepository.builder(n);
+        for (long id = 1; id <= n; id++) builder.add(id, "E", "", 1000, id == n ? 1 : id + 1);
+        var org = builder.build();
+
+        var result = HierarchyEngine.run(org);
+
+        assertEquals(1, result.cycles().size());
+        assertEquals(n, result.cycles().getFirst().length);
+    }
+
+    @Test
+    void lazyResultMatchesFullWalkInAnyQueryOrder() {
+        int n = 20_000;
+        var org = columnar(RandomOrg.of(n, 25).missing(20).forward(40).chained(300).employees());
+
+        var full = HierarchyEngine.run(org, false);
+        var lazy = HierarchyEngine.lazy(org);
+        assertTrue(lazy.cycles().isEmpty());
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < n; i++) order.add(i);
+        Collections.shuffle(order, new Random(25));
+        for (int i : order) {
+            assertEquals(full.depth(i), lazy.depth(i));
+            assertEquals(full.inCycle(i), lazy.inCycle(i));
+            assertEquals(full.cutOffByCycle(i), lazy.cutOffByCycle(i));
+            if (full.cycleOf(i) != HierarchyEngine.NO_CYCLE) {
+                assertArrayEquals(full.cycles().get(full.cycleOf(i)), lazy.cycles().get(lazy.cycleOf(i)));
+            }
+        }
+        assertFalse(full.cycles().isEmpty());
+        assertEquals(full.cycles().size(), lazy.cycles().size());
+    }
+
+    private static List<Long> ids(ColumnarEmployeeRepository org, int[] members) {
+        List<Long> ids = new ArrayList<>();
+        Arrays.stream(members).forEach(m -> ids.add(org.id(m)));
+        return ids;
+    }
+}
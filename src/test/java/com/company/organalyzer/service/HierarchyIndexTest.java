@@ -0,0 +1,116 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.company.organalyzer.service.ColumnarEmployeeRepository.NONE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchyIndexTest {
+
+    private static ColumnarEmployeeRepository org(List<Employee> employees) {
+        var builder = ColumnarEmployeeRepository.builder(employees.size());
+        employees.forEach(builder::add);
+        return builder.build();
+    }
+
+    // ancestors by walking one hop at a time
+    private static List<Integer> naiveChain(ColumnarEmployeeRepository org, int i) {
+        List<Integer> chain = new ArrayList<>();
+        for (int v = i; v != NONE; v = org.parent(v)) chain.add(v);
+        return chain;
+    }
+
+    @Test
+    void answersQueriesOnSmallOrg() {
+        var org = org(List.of(
+                new Employee(1, "CEO", "", 100, null),
+                new Employee(2, "A", "", 100, 1L),
+                new Employee(3, "B", "", 100, 1L),
+                new Employee(4, "C", "", 100, 2L),
+                new Employee(5, "D", "", 100, 2L),
+                new Employee(6, "E", "", 100, 4L),
+                new Employee(7, "Orphan", "", 100, 99L),
+                new Employee(8, "UnderOrphan", "", 100, 7L),
+                new Employee(9, "Loop", "", 100, 10L),
+                new Employee(10, "Loop", "", 100, 9L),
+                new Employee(11, "Tail", "", 100, 9L)
+        ));
+        var index = HierarchyIndex.build(org);
+        int e6 = org.indexOf(6), e5 = org.indexOf(5), e3 = org.indexOf(3);
+
+        assertEquals(3, index.depth(e6));
+        assertEquals(org.indexOf(2), index.ancestor(e6, 2));
+        assertEquals(org.indexOf(1), index.ancestor(e6, 3));
+        assertEquals(NONE, index.ancestor(e6, 4));
+        assertEquals(e6, index.ancestor(e6, 0));
+
+        assertEquals(org.indexOf(2), index.lowestCommonManager(e6, e5));
+        assertEquals(org.indexOf(1), index.lowestCommonManager(e6, e3));
+        assertEquals(org.indexOf(4), index.lowestCommonManager(org.indexOf(4), e6));
+        assertTrue(index.isAbove(org.indexOf(1), e6));
+        assertFalse(index.isAbove(e6, org.indexOf(1)));
+
+        int orphan = org.indexOf(8);
+        assertEquals(HierarchyEngine.UNREACHABLE, index.depth(orphan));
+        assertEquals(org.indexOf(7), index.ancestor(orphan, 1));
+        assertEquals(NONE, index.lowestCommonManager(orphan, e6));
+
+        int tail = org.indexOf(11);
+        assertFalse(index.indexed(tail));
+        assertEquals(NONE, index.ancestor(tail, 1));
+        assertEquals(NONE, index.lowestCommonManager(tail, e6));
+        assertArrayEquals(new int[]{tail, org.indexOf(9), org.indexOf(10)}, index.chain(tail));
+        assertArrayEquals(new int[]{e6, org.indexOf(4), org.indexOf(2), org.indexOf(1)}, index.chain(e6));
+    }
+
+    @Test
+    void matchesNaiveWalksOnRandomForest() {
+        // mostly long chains, so ancestors are many levels up
+        var org = org(RandomOrg.of(5000, 5).missing(5).chained(995).employees());
+        var index = HierarchyIndex.build(org);
+
+        Random rnd = new Random(5);
+        for (int q = 0; q < 3000; q++) {
+            int a = rnd.nextInt(org.size());
+            int b = rnd.nextInt(org.size());
+            List<Integer> ca = naiveChain(org, a);
+            List<Integer> cb = naiveChain(org, b);
+
+            int k = rnd.nextInt(ca.size() + 2);
+            assertEquals(k < ca.size() ? ca.get(k) : NONE, index.ancestor(a, k));
+
+            int expected = NONE;
+            Set<Integer> above = new HashSet<>(cb);
+            for (int v : ca) {
+                if (above.contains(v)) {
+                    expected = v;
+                    break;
+                }
+            }
+            assertEquals(expected, index.lowestCommonManager(a, b));
+            assertEquals(cb.contains(a), index.isAbove(a, b));
+            assertEquals(ca, Arrays.stream(index.chain(a)).boxed().toList());
+        }
+    }
+
+    @Test
+    void handlesMillionLevelChain() {
+        int n = 1_000_000;
+        var builder = ColumnarEmployeeRepository.builder(n);
+        builder.add(1, "CEO", "", 100, ColumnarEmployeeRepository.NO_MANAGER);
+        for (long id = 2; id <= n; id++) builder.add(id, "E", "", 100, id - 1);
+        builder.add(n + 1, "Branch", "", 100, n / 2);
+        var org = builder.build();
+        var index = HierarchyIndex.build(org);
+
+        int last = org.indexOf(n);
+        assertEquals(n - 1, index.depth(last));
+        assertEquals(org.indexOf(1), index.ancestor(last, n - 1));
+        assertEquals(org.indexOf(n / 2 + 1), index.ancestor(last, n / 2 - 1));
+        assertEquals(org.indexOf(n / 2), index.lowestCommonManager(last, org.indexOf(n + 1)));
+    }
+}
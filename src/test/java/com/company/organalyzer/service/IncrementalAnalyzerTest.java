@@ -0,0 +1,163 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.AnalysisReport;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.EmployeeEvent;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAnalyzerTest {
+
+    @Test
+    void salaryChangeUpdatesEmployeeAndManager() {
+        var repo = new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 100000, null),
+                new Employee(2, "Mgr", "", 70000, 1L),
+                new Employee(3, "Emp", "", 50000, 2L)
+        ));
+        var analyzer = new IncrementalAnalyzer(repo);
+        assertTrue(analyzer.report(3, 0).getUnderpaidManagers().isEmpty());
+
+        analyzer.apply(new EmployeeEvent.SalaryChanged(3, 65000));
+
+        var report = analyzer.report(3, 0);
+        assertEquals(Set.of(2L), ids(report.getUnderpaidManagers()));
+        assertEquals(8000, report.getUnderpaidManagers().get(
+                new Employee(2, "Mgr", "", 70000, 1L)), 1e-9);
+    }
+
+    @Test
+    void managerChangeMovesSubtreeAndClosesCycle() {
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "CEO", "", 100000, null));
+        for (long id = 2; id <= 6; id++) employees.add(new Employee(id, "E", "", 50000, id - 1));
+        employees.add(new Employee(7, "Side", "", 60000, 1L));
+
+        var analyzer = new IncrementalAnalyzer(new EmployeeRepository(employees));
+        assertEquals(Set.of(6L), ids(analyzer.report(7, 0).getLongReportingLines()));
+
+        analyzer.changeManager(4, 7L);
+        assertTrue(analyzer.report(7, 0).getLongReportingLines().isEmpty());
+
+        analyzer.changeManager(7, 6L);
+        var report = analyzer.report(7, 0);
+        assertEquals(List.of("Circular reporting chain detected: 4 → 7 → 6 → 5 → 4"),
+                report.getCircularReferences());
+
+        analyzer.changeManager(7, 1L);
+        assertTrue(analyzer.report(7, 0).getCircularReferences().isEmpty());
+        assertTrue(analyzer.report(7, 0).getCutOffEmployees().isEmpty());
+    }
+
+    @Test
+    void removingManagerMakesReportsInvalidUntilReAdded() {
+        var analyzer = new IncrementalAnalyzer(new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 100000, null),
+                new Employee(2, "Mgr", "", 70000, 1L),
+                new Employee(3, "Emp", "", 50000, 2L)
+        )));
+
+        analyzer.remove(2);
+        assertEquals(List.of("Employee 3 references missing manager ID: 2"),
+                analyzer.report(2, 0).getInvalidManagerReferences());
+
+        analyzer.add(new Employee(2, "Mgr", "", 70000, 1L));
+        assertTrue(analyzer.report(3, 0).getInvalidManagerReferences().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> analyzer.add(new Employee(2, "Again", "", 1000, 1L)));
+    }
+
+    @Test
+    void usesTheGivenThresholds() {
+        var thresholds = new AnalysisThresholds(1.1, 1.6, 2);
+        List<Employee> employees = List.of(
+                new Employee(1, "CEO", "", 100000, null),
+                new Employee(2, "Mgr", "", 60000, 1L),
+                new Employee(3, "Lead", "", 52000, 2L),
+                new Employee(4, "Dev", "", 50000, 3L)
+        );
+        var analyzer = new IncrementalAnalyzer(new EmployeeRepository(employees), thresholds);
+        analyzer.changeSalary(3, 58000);
+
+        List<Employee> changed = new ArrayList<>(employees);
+        changed.set(2, new Employee(3, "Lead", "", 58000, 2L));
+        var expected = new OrganizationAnalyzer(new EmployeeRepository(changed), thresholds).analyze(4, 0);
+        var actual = analyzer.report(4, 0);
+
+        assertSameFindings(expected, actual);
+        assertEquals(Set.of(4L), ids(actual.getLongReportingLines()));
+        assertEquals(Set.of(2L), ids(actual.getUnderpaidManagers()));
+        assertEquals(2, actual.getMaxDepth());
+    }
+
+    @Test
+    void randomEventStreamMatchesFullRecompute() {
+        Map<Long, Employee> model = new LinkedHashMap<>();
+        for (Employee e : RandomOrg.of(300, 42).employees()) model.put(e.id(), e);
+        Random rnd = new Random(42);
+
+        var analyzer = new IncrementalAnalyzer(new EmployeeRepository(List.copyOf(model.values())));
+        long nextId = 301;
+        int checkedWithCutOff = 0;
+
+        for (int step = 0; step < 3000; step++) {
+            List<Long> ids = new ArrayList<>(model.keySet());
+            long id = ids.get(rnd.nextInt(ids.size()));
+            Employee e = model.get(id);
+            EmployeeEvent event = switch (rnd.nextInt(4)) {
+                case 0 -> new EmployeeEvent.Added(new Employee(nextId++, "N", "", 30000 + rnd.nextInt(90000),
+                        rnd.nextInt(20) == 0 ? 9999L : ids.get(rnd.nextInt(ids.size()))));
+                case 1 -> ids.size() > 10 ? new EmployeeEvent.Removed(id)
+                        : new EmployeeEvent.SalaryChanged(id, 50000);
+                case 2 -> new EmployeeEvent.SalaryChanged(id, 30000 + rnd.nextInt(150000));
+                default -> new EmployeeEvent.ManagerChanged(id,
+                        rnd.nextInt(30) == 0 ? null : ids.get(rnd.nextInt(ids.size())));
+            };
+
+            analyzer.apply(event);
+            applyToModel(model, event, e);
+
+            if (step % 100 == 0 || step == 2999) {
+                var expected = new OrganizationAnalyzer(new EmployeeRepository(List.copyOf(model.values())))
+                        .analyze(model.size(), 0);
+                assertSameFindings(expected, analyzer.report(model.size(), 0));
+                if (!expected.getCutOffEmployees().isEmpty()) checkedWithCutOff++;
+            }
+        }
+        assertTrue(checkedWithCutOff > 0);
+    }
+
+    private static void applyToModel(Map<Long, Employee> model, EmployeeEvent event, Employee e) {
+        if (event instanceof EmployeeEvent.Added a) model.put(a.id(), a.employee());
+        else if (event instanceof EmployeeEvent.Removed r) model.remove(r.id());
+        else if (event instanceof EmployeeEvent.SalaryChanged s)
+            model.put(s.id(), new Employee(e.id(), e.firstName(), e.lastName(), s.salary(), e.managerId()));
+        else if (event instanceof EmployeeEvent.ManagerChanged m)
+            model.put(m.id(), new Employee(e.id(), e.firstName(), e.lastName(), e.salary(), m.managerId()));
+    }
+
+    private static void assertSameFindings(AnalysisReport expected, AnalysisReport actual) {
+        assertSameAmounts(expected.getUnderpaidManagers(), actual.getUnderpaidManagers());
+        assertSameAmounts(expected.getOverpaidManagers(), actual.getOverpaidManagers());
+        assertEquals(expected.getLongReportingLines(), actual.getLongReportingLines());
+        assertEquals(Set.copyOf(expected.getInvalidManagerReferences()),
+                Set.copyOf(actual.getInvalidManagerReferences()));
+        assertEquals(expected.getCircularReferences(), actual.getCircularReferences());
+        assertEquals(expected.getCutOffEmployees(), actual.getCutOffEmployees());
+    }
+
+    private static void assertSameAmounts(Map<Employee, Double> expected, Map<Employee, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((e, v) -> assertEquals(v, actual.get(e), 1e-6));
+    }
+
+    private static Set<Long> ids(Map<Employee, ?> map) {
+        return map.keySet().stream().map(Employee::id).collect(Collectors.toSet());
+    }
+}
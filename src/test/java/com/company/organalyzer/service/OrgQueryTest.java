@@ -0,0 +1,99 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.RuleEngine;
+import com.company.organalyzer.rules.SpanOfControlRule;
+import com.company.organalyzer.rules.UnderpaidRule;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgQueryTest {
+
+    private static EmployeeRepository sample() throws Exception {
+        var builder = EmployeeRepository.builder();
+        try (InputStream in = OrgQueryTest.class.getClassLoader().getResourceAsStream("employees.csv")) {
+            CsvEmployeeParser.parse(in, builder::add);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void answersPointQueriesOnSampleFile() throws Exception {
+        var repo = sample();
+        var query = new OrgQuery(repo);
+        var byId = repo.allById();
+
+        assertEquals(List.of(new Finding.Underpaid(byId.get(3L), 15000)), query.employee(3));
+        assertEquals(List.of(new Finding.TooDeep(byId.get(11L), 1)), query.employee(11));
+        assertEquals(5, query.depth(11));
+        assertEquals(List.of(new Finding.CircularChain(List.of(15L, 16L, 17L))), query.employee(16));
+        assertTrue(query.inCycle(17));
+        assertEquals(HierarchyEngine.UNREACHABLE, query.depth(15));
+        assertEquals(List.of(new Finding.InvalidManager(19, 999)), query.employee(19));
+        assertEquals(List.of(new Finding.DuplicateId(20)), query.employee(20));
+        assertTrue(query.employee(2).isEmpty());
+
+        // Charlie is flagged; Eve and Overpaid2 are not
+        assertEquals(List.of(new Finding.Underpaid(byId.get(7L), 96200)), query.team(7));
+
+        assertThrows(NoSuchElementException.class, () -> query.employee(404));
+        assertThrows(IllegalArgumentException.class, () -> query.category("late"));
+    }
+
+    @Test
+    void answersForCustomRules() throws Exception {
+        var repo = sample();
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS).register(new SpanOfControlRule(2));
+        List<Finding> streamed = new ArrayList<>();
+        new OrganizationAnalyzer(repo, engine).streamFindings(streamed::add);
+        var query = new OrgQuery(repo, engine);
+
+        List<Finding> expected = streamed.stream().filter(f -> f.type().equals(SpanOfControlRule.NAME)).toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, query.category(SpanOfControlRule.NAME));
+        var first = (Finding.RuleFinding) expected.get(0);
+        assertTrue(query.employee(first.employee().id()).contains(first));
+
+        engine.unregister(UnderpaidRule.NAME);
+        assertTrue(query.category("underpaid").isEmpty());
+    }
+
+    @Test
+    void queriesMatchStreamedFindings() throws Exception {
+        int n = 5_000;
+        var repo = new EmployeeRepository(RandomOrg.of(n, 25).missing(20).forward(30).chained(450).duplicates(10).employees());
+
+        List<Finding> streamed = new ArrayList<>();
+        new OrganizationAnalyzer(repo).streamFindings(streamed::add);
+        var query = new OrgQuery(repo);
+
+        // point queries first, so the category scans run on a partly resolved hierarchy
+        Map<Long, List<Finding>> salaryAndDepth = new HashMap<>();
+        for (Finding f : streamed) {
+            Employee e = f instanceof Finding.Underpaid u ? u.employee()
+                    : f instanceof Finding.Overpaid o ? o.employee()
+                    : f instanceof Finding.TooDeep d ? d.employee() : null;
+            if (e != null) salaryAndDepth.computeIfAbsent(e.id(), k -> new ArrayList<>()).add(f);
+        }
+        for (long id = n; id >= 1; id -= 7) {
+            List<Finding> found = new ArrayList<>(query.employee(id));
+            found.removeIf(f -> !(f instanceof Finding.Underpaid || f instanceof Finding.Overpaid || f instanceof Finding.TooDeep));
+            assertEquals(salaryAndDepth.getOrDefault(id, List.of()), found, "employee " + id);
+        }
+
+        for (String type : List.of("underpaid", "overpaid", "too_deep", "invalid_manager", "duplicate_id", "circular_chain", "cut_off")) {
+            List<Finding> expected = streamed.stream().filter(f -> f.type().equals(type)).toList();
+            assertFalse(expected.isEmpty(), type);
+            assertEquals(expected, query.category(type), type);
+            assertSame(query.category(type), query.category(type));
+        }
+    }
+}
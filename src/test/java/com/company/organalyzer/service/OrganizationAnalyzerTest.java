@@ -1,10 +1,17 @@
 package com.company.organalyzer.service;
 
+import com.company.organalyzer.RandomOrg;
 import com.company.organalyzer.model.AnalysisReport;
 import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.Finding;
+import com.company.organalyzer.model.FindingsPage;
+import com.company.organalyzer.rules.AnalysisThresholds;
+import com.company.organalyzer.rules.ReportingDepthRule;
+import com.company.organalyzer.rules.RuleEngine;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +151,191 @@ class OrganizationAnalyzerTest {
         assertEquals(2, report.getTotalProcessed());
         assertEquals(0, report.getInvalidEntries());
     }
+
+    @Test
+    void analyzesVeryDeepChainWithoutStackOverflow() {
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "CEO", "", 90000, null));
+        for (long id = 2; id <= 100_000; id++) {
+            employees.add(new Employee(id, "E", "", 50000, id - 1));
+        }
+
+        var repo = new EmployeeRepository(employees);
+        AnalysisReport report = new OrganizationAnalyzer(repo).analyze(employees.size(), 0);
+
+        assertEquals(100_000 - 5, report.getLongReportingLines().size());
+        assertTrue(report.getCircularReferences().isEmpty());
+    }
+
+    @Test
+    void reportsEachCycleSeparatelyWithCutOffEmployees() {
+        var employees = List.of(
+                new Employee(1, "CEO", "", 90000, null),
+                new Employee(20, "A", "", 70000, 21L),
+                new Employee(21, "B", "", 70000, 22L),
+                new Employee(22, "C", "", 70000, 20L),
+                new Employee(23, "Tail", "", 50000, 21L),
+                new Employee(24, "Tail2", "", 40000, 23L),
+                new Employee(31, "D", "", 70000, 30L),
+                new Employee(30, "E", "", 70000, 31L)
+        );
+
+        var repo = new EmployeeRepository(employees);
+        AnalysisReport report = new OrganizationAnalyzer(repo).analyze(8, 0);
+
+        assertEquals(List.of(
+                "Circular reporting chain detected: 20 → 21 → 22 → 20",
+                "Circular reporting chain detected: 31 → 30 → 31"
+        ), report.getCircularReferences());
+
+        assertEquals(List.of(
+                "Employee 23 is cut off from the CEO by circular chain 20 → 21 → 22 → 20",
+                "Employee 24 is cut off from the CEO by circular chain 20 → 21 → 22 → 20"
+        ), report.getCutOffEmployees());
+
+        assertTrue(report.toString().contains("EMPLOYEES CUT OFF BY CIRCULAR REFERENCES"));
+    }
+
+    @Test
+    void sharedEngineChangesReachTheNextReport() {
+        var repo = new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 100000, null),
+                new Employee(2, "Mgr", "", 62000, 1L),
+                new Employee(3, "Emp", "", 55000, 2L),
+                new Employee(4, "Dev", "", 40000, 3L)
+        ));
+        var engine = RuleEngine.standard(AnalysisThresholds.DEFAULTS);
+        var analyzer = new OrganizationAnalyzer(repo, engine);
+        assertSame(engine, analyzer.rules());
+        assertEquals(1, analyzer.analyze(4, 0).getUnderpaidManagers().size());
+
+        engine.reconfigure(new AnalysisThresholds(1.1, 1.5, 1));
+        AnalysisReport report = analyzer.analyze(4, 0);
+        assertTrue(report.getUnderpaidManagers().isEmpty());
+        assertEquals(List.of(3L, 4L), report.getLongReportingLines().keySet().stream().map(Employee::id).toList());
+        assertEquals(1, report.getMaxDepth());
+
+        engine.unregister(ReportingDepthRule.NAME);
+        assertTrue(analyzer.analyze(4, 0).getLongReportingLines().isEmpty());
+    }
+
+    @Test
+    void parallelAnalysisMatchesSequentialInOrder() {
+        var employees = RandomOrg.of(60_000, 42).forward(20).employees();
+
+        var repo = new EmployeeRepository(employees);
+        AnalysisReport sequential = new OrganizationAnalyzer(repo).analyze(employees.size(), 0);
+
+        var pool = new ForkJoinPool(4);
+        try {
+            AnalysisReport parallel = new OrganizationAnalyzer(repo).analyzeParallel(employees.size(), 0, pool);
+
+            assertFalse(sequential.getUnderpaidManagers().isEmpty());
+            assertFalse(sequential.getLongReportingLines().isEmpty());
+            assertEquals(List.copyOf(sequential.getUnderpaidManagers().entrySet()),
+                    List.copyOf(parallel.getUnderpaidManagers().entrySet()));
+            assertEquals(List.copyOf(sequential.getOverpaidManagers().entrySet()),
+                    List.copyOf(parallel.getOverpaidManagers().entrySet()));
+            assertEquals(List.copyOf(sequential.getLongReportingLines().entrySet()),
+                    List.copyOf(parallel.getLongReportingLines().entrySet()));
+            assertEquals(sequential.getCircularReferences(), parallel.getCircularReferences());
+            assertEquals(sequential.toString(), parallel.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Coarse salaries, so equal amounts exercise the tie-break on index.
+    private static EmployeeRepository randomOrg(int size, long seed) {
+        return new EmployeeRepository(RandomOrg.of(size, seed).salaryStep(1000).employees());
+    }
+
+    // Every entry, worst first, ties in analyzer order.
+    private static <V extends Number> List<Map.Entry<Employee, V>> worstFirst(Map<Employee, V> flagged) {
+        List<Map.Entry<Employee, V>> all = new ArrayList<>(flagged.entrySet());
+        all.sort((a, b) -> Double.compare(b.getValue().doubleValue(), a.getValue().doubleValue()));
+        return all;
+    }
+
+    @Test
+    void topKKeepsTheWorstOffendersInSeverityOrder() {
+        var repo = randomOrg(20_000, 7);
+        AnalysisReport full = new OrganizationAnalyzer(repo).analyze(20_000, 0);
+        AnalysisReport top = new OrganizationAnalyzer(repo).analyzeTop(20_000, 0, 100);
+
+        assertTrue(full.getUnderpaidManagers().size() > 100);
+        assertTrue(full.getLongReportingLines().size() > 100);
+        assertEquals(worstFirst(full.getUnderpaidManagers()).subList(0, 100),
+                List.copyOf(top.getUnderpaidManagers().entrySet()));
+        assertEquals(worstFirst(full.getOverpaidManagers()).subList(0, Math.min(100, full.getOverpaidManagers().size())),
+                List.copyOf(top.getOverpaidManagers().entrySet()));
+        assertEquals(worstFirst(full.getLongReportingLines()).subList(0, 100),
+                List.copyOf(top.getLongReportingLines().entrySet()));
+        assertEquals(full.getInvalidManagerReferences(), top.getInvalidManagerReferences());
+    }
+
+    @Test
+    void pagesWalkThroughAllFindingsExactlyOnce() {
+        var repo = randomOrg(5_000, 11);
+        var analyzer = new OrganizationAnalyzer(repo);
+        AnalysisReport full = analyzer.analyze(5_000, 0);
+
+        List<Map.Entry<Employee, Double>> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FindingsPage page = analyzer.page("underpaid", 37, cursor);
+            assertEquals(full.getUnderpaidManagers().size(), page.total());
+            assertTrue(page.items().size() <= 37);
+            for (var item : page.items()) paged.add(Map.entry(item.employee(), item.amount()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(worstFirst(full.getUnderpaidManagers()), paged);
+        assertEquals((full.getUnderpaidManagers().size() + 36) / 37, pages);
+        assertThrows(IllegalArgumentException.class, () -> analyzer.page("underpaid", 10, "not-a-cursor"));
+    }
+
+    @Test
+    void streamedFindingsMatchTheReport() throws Exception {
+        var employees = List.of(
+                new Employee(1, "CEO", "", 90000, null),
+                new Employee(2, "Mgr", "", 50000, 1L),       // underpaid
+                new Employee(3, "Emp", "", 60000, 2L),
+                new Employee(20, "A", "", 70000, 21L),
+                new Employee(21, "B", "", 70000, 20L),
+                new Employee(23, "Tail", "", 50000, 21L),
+                new Employee(24, "Lost", "", 40000, 999L),
+                new Employee(24, "Again", "", 40000, 1L)
+        );
+        var builder = EmployeeRepository.builder();
+        employees.forEach(builder::add);
+        var repo = builder.build();
+        var analyzer = new OrganizationAnalyzer(repo);
+        AnalysisReport report = analyzer.analyze(employees.size(), 0);
+
+        List<Finding> streamed = new ArrayList<>();
+        long written = analyzer.streamFindings(streamed::add);
+
+        assertEquals(streamed.size(), written);
+        Map<Employee, Double> underpaid = new LinkedHashMap<>();
+        List<String> issues = new ArrayList<>();
+        for (Finding f : streamed) {
+            if (f instanceof Finding.Underpaid u) underpaid.put(u.employee(), u.shortfall());
+            else if (f instanceof Finding.InvalidManager m) issues.add(m.message());
+            else if (f instanceof Finding.DuplicateId d) issues.add(d.message());
+            else if (f instanceof Finding.CircularChain c) issues.add(c.message());
+            else if (f instanceof Finding.CutOff c) issues.add(c.message());
+        }
+        assertEquals(report.getUnderpaidManagers(), underpaid);
+
+        List<String> reported = new ArrayList<>(report.getInvalidManagerReferences());
+        reported.addAll(report.getDuplicateIds());
+        reported.addAll(report.getCircularReferences());
+        reported.addAll(report.getCutOffEmployees());
+        assertEquals(reported, issues);
+        assertTrue(streamed.contains(new Finding.CircularChain(List.of(20L, 21L))));
+        assertTrue(streamed.contains(new Finding.DuplicateId(24)));
+    }
 }
@@ -0,0 +1,82 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import com.company.organalyzer.report.ReportWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedAnalyzerTest {
+
+    @TempDir
+    Path dir;
+
+    // Parse, build, analyze and write one after another.
+    private static String sequential(Path csv) throws Exception {
+        var builder = EmployeeRepository.builder();
+        var errors = CsvEmployeeParser.parse(csv, builder::add);
+        var repo = builder.build();
+        int invalid = errors.size() + repo.getInvalidManagers().size() + repo.getDuplicateIds().size();
+        StringWriter out = new StringWriter();
+        new ReportWriter(out).write(new OrganizationAnalyzer(repo).analyze(builder.added(), invalid));
+        return out.toString();
+    }
+
+    @Test
+    void matchesSequentialRunOfSampleFile() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv")) {
+            Files.copy(in, csv);
+        }
+
+        StringWriter out = new StringWriter();
+        try (InputStream in = Files.newInputStream(csv)) {
+            PipelinedAnalyzer.run(in, out);
+        }
+
+        assertEquals(sequential(csv), out.toString());
+    }
+
+    @Test
+    void matchesSequentialRunAcrossManyBatches() throws Exception {
+        // enough rows to fill the queue many times over, with every kind of report section
+        int n = PipelinedAnalyzer.BATCH_ROWS * PipelinedAnalyzer.QUEUE_BATCHES * 3;
+        Path file = RandomOrg.of(n, 22).missing(2).forward(2).chained(496).duplicates(1).badRows(1)
+                .write(dir.resolve("large.csv"));
+
+        StringWriter out = new StringWriter();
+        var result = PipelinedAnalyzer.run(file, out);
+
+        assertEquals(sequential(file), out.toString());
+        assertFalse(result.errors().isEmpty());
+        assertFalse(result.report().getDuplicateIds().isEmpty());
+        assertFalse(result.report().getInvalidManagerReferences().isEmpty());
+        assertFalse(result.report().getCircularReferences().isEmpty());
+    }
+
+    @Test
+    void parseFailureStopsTheBuilder() {
+        byte[] rows = ("Id,firstName,lastName,salary,managerId\n" + "2,A,B,50000,1\n".repeat(100_000))
+                .getBytes(StandardCharsets.UTF_8);
+        InputStream failing = new InputStream() {
+            int pos;
+
+            @Override
+            public int read() throws IOException {
+                if (pos == rows.length / 2) throw new IOException("disk gone");
+                return rows[pos++];
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> PipelinedAnalyzer.run(failing, new StringWriter()));
+        assertEquals("disk gone", e.getMessage());
+    }
+}
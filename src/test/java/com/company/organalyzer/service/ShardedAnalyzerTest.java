@@ -0,0 +1,96 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAnalyzerTest {
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId\n";
+
+    @TempDir
+    Path dir;
+
+    private Path file(String name, String rows) throws Exception {
+        Path p = dir.resolve(name);
+        Files.writeString(p, HEADER + rows);
+        return p;
+    }
+
+    @Test
+    void resolvesManagersAcrossShards() throws Exception {
+        Path hq = file("hq.csv", """
+                1,Ceo,Boss,200000,
+                2,Ann,East,60000,1
+                """);
+        Path east = file("east.csv", """
+                10,Bob,Lead,50000,2
+                11,Cid,Dev,45000,10
+                12,Dee,Dev,40000,99
+                """);
+        Path west = file("west.csv", """
+                20,Eve,Lead,70000,1
+                21,Fay,Dev,40000,20
+                """);
+
+        var result = ShardedAnalyzer.analyze(List.of(hq, east, west));
+
+        // manager 2 lives in hq.csv, 10 in east.csv; only 99 is missing from every shard
+        assertEquals(List.of("Employee 12 references missing manager ID: 99"), result.merged().getInvalidManagers());
+        assertEquals(1, result.merged().indexOf(2));
+        assertEquals(result.merged().indexOf(2), result.merged().parent(result.merged().indexOf(10)));
+        // on its own, east.csv could not resolve manager 2 either
+        assertEquals(2, result.shards().get(1).repo().getInvalidManagers().size());
+        assertEquals(7, result.report().getTotalProcessed());
+        assertEquals(1, result.report().getInvalidEntries());
+    }
+
+    @Test
+    void matchesAnalysisOfConcatenatedFile() throws Exception {
+        int shards = 4;
+        StringBuilder[] rows = new StringBuilder[shards];
+        for (int s = 0; s < shards; s++) rows[s] = new StringBuilder();
+
+        // managers often sit in an earlier shard; a few point at ids no shard has
+        String[] lines = RandomOrg.of(4000, 5).missing(5).rows().split("\n");
+        for (int k = 0; k < lines.length; k++) rows[k * shards / lines.length].append(lines[k]).append('\n');
+        rows[2].append("not,a,row\n");
+        rows[3].append("17,Dup,Licate,55000,3\n");
+
+        List<Path> files = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        for (int s = 0; s < shards; s++) {
+            files.add(file("unit" + s + ".csv", rows[s].toString()));
+            all.append(rows[s]);
+        }
+        Path whole = file("all.csv", all.toString());
+
+        var builder = ColumnarEmployeeRepository.builder(0);
+        var errors = CsvEmployeeParser.parse(whole, builder::add);
+        var repo = builder.build();
+        int invalid = errors.size() + repo.getInvalidManagers().size() + repo.getDuplicateIds().size();
+        var expected = new OrganizationAnalyzer(repo).analyze(builder.added(), invalid);
+
+        var pool = new ForkJoinPool(3);
+        ShardedAnalyzer.Result result;
+        try {
+            result = ShardedAnalyzer.analyze(files, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(expected.toString(), result.report().toString());
+        assertEquals(repo.getInvalidManagers(), result.merged().getInvalidManagers());
+        assertEquals(List.of("Duplicate employee ID: 17"), result.merged().getDuplicateIds());
+        assertEquals(1, result.errors().size());
+        assertTrue(result.errors().get(0).startsWith("unit2.csv: "), result.errors().get(0));
+    }
+}
@@ -0,0 +1,137 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.model.OrgDelta;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDiffTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String rows) throws Exception {
+        Path file = dir.resolve(name);
+        Files.writeString(file, "Id,firstName,lastName,salary,managerId\n" + rows);
+        return file;
+    }
+
+    private static List<Long> ids(List<OrgDelta.Change> changes) {
+        return changes.stream().map(c -> c.after().id()).toList();
+    }
+
+    @Test
+    void reportsRecordChangesAndFindingsThatAppearedOrCleared() throws Exception {
+        Path before = write("before.csv", """
+                1,Ceo,Boss,200000,
+                2,Ann,Lee,60000,1
+                3,Bob,Ray,50000,2
+                4,Cy,Ng,50000,2
+                5,Dee,Oz,70000,1
+                6,Ed,Gone,40000,5
+                """);
+        Path after = write("after.csv", """
+                1,Ceo,Boss,200000,
+                2,Ann,Lee,55000,1
+                3,Bob,Ray,50000,2
+                4,Cy,Ng,50000,5
+                5,Dee,Oz,70000,1
+                7,New,Hire,45000,5
+                8,Lost,Ref,30000,99
+                """);
+
+        OrgDelta delta = SnapshotDiff.diff(before, after);
+
+        assertEquals(List.of(7L, 8L), delta.added().stream().map(e -> e.id()).toList());
+        assertEquals(List.of(6L), delta.removed().stream().map(e -> e.id()).toList());
+
+        assertEquals(List.of(2L), ids(delta.salaryChanges()));
+        assertEquals(60000, delta.salaryChanges().get(0).before().salary());
+        assertEquals(55000, delta.salaryChanges().get(0).after().salary());
+
+        assertEquals(List.of(4L), ids(delta.managerMoves()));
+        assertEquals(2L, delta.managerMoves().get(0).before().managerId());
+        assertEquals(5L, delta.managerMoves().get(0).after().managerId());
+
+        // Ann now earns less than 1.2x her one report; Dee's team grew and she is no longer overpaid
+        assertEquals(List.of(new OrgDelta.Finding(OrgDelta.UNDERPAID, delta.salaryChanges().get(0).after(), 5000)),
+                delta.appeared());
+        assertEquals(1, delta.cleared().size());
+        assertEquals(OrgDelta.OVERPAID, delta.cleared().get(0).category());
+        assertEquals(5L, delta.cleared().get(0).employee().id());
+        assertEquals(10000, delta.cleared().get(0).amount(), 1e-9);
+
+        assertEquals(List.of("Employee 8 references missing manager ID: 99"), delta.issuesAppeared());
+        assertTrue(delta.issuesCleared().isEmpty());
+        assertTrue(delta.toString().contains("SALARY CHANGES:\n • 2: Ann Lee $60000 → $55000\n"));
+    }
+
+    @Test
+    void snapshotOfTheSameExportHasNoChanges() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv")) {
+            Files.copy(in, csv);
+        }
+        var builder = ColumnarEmployeeRepository.builder(0);
+        CsvEmployeeParser.parse(csv, builder::add);
+        Path snap = dir.resolve("employees.snap");
+        SnapshotWriter.write(builder.build(), snap);
+
+        OrgDelta delta = SnapshotDiff.diff(snap, csv);
+
+        assertTrue(delta.isEmpty(), delta::toString);
+        assertThrows(IllegalArgumentException.class,
+                () -> SnapshotDiff.diff(snap, csv, ExternalAnalyzer.MIN_BUDGET, dir));
+    }
+
+    @Test
+    void sortMergeDiffMatchesInMemoryDiff() throws Exception {
+        int n = 20_000;
+        var before = RandomOrg.of(n, 21);
+        Random rnd = new Random(21);
+        StringBuilder after = new StringBuilder();
+        for (Employee e : before.employees()) {
+            double salary = e.salary();
+            Long mgr = e.managerId();
+            int roll = e.id() == 1 ? 99 : rnd.nextInt(100);
+            if (roll < 3) continue;                                                 // left
+            if (roll < 8) salary += 1_000 + rnd.nextInt(20_000);                    // raise
+            if (roll >= 6 && roll < 10) mgr = 1 + (long) rnd.nextInt((int) e.id() - 1);  // moved
+            if (roll == 10) mgr = 5L * n;                                           // manager gone
+            after.append(RandomOrg.row(new Employee(e.id(), e.firstName(), e.lastName(), salary, mgr)));
+        }
+        for (int id = n + 1; id <= n + 500; id++) {                                // joined
+            after.append(id).append(",New,Hire").append(id).append(',').append(35_000 + rnd.nextInt(50_000))
+                    .append(',').append(1 + rnd.nextInt(n)).append('\n');
+        }
+        // a duplicate in the new export keeps the first position and the last row's data
+        after.append("7,Dup,Seven,99999,1\n");
+        // and two new employees who report to each other
+        after.append(n + 501).append(",Loop,A,50000,").append(n + 502).append('\n');
+        after.append(n + 502).append(",Loop,B,50000,").append(n + 501).append('\n');
+
+        Path a = before.write(dir.resolve("a.csv"));
+        Path b = write("b.csv", after.toString());
+
+        OrgDelta expected = SnapshotDiff.diff(a, b);
+        OrgDelta external = SnapshotDiff.diff(a, b, ExternalAnalyzer.MIN_BUDGET, dir);
+
+        assertFalse(expected.removed().isEmpty());
+        assertEquals(502, expected.added().size());
+        assertFalse(expected.issuesAppeared().isEmpty());
+        assertEquals(expected, external);
+        assertEquals(expected.toString(), external.toString());
+        try (var left = Files.list(dir)) {
+            assertEquals(2, left.count(), "spill directories are removed");
+        }
+    }
+}
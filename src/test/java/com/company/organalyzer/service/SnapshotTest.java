@@ -0,0 +1,106 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import com.company.organalyzer.parser.CsvEmployeeParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private ColumnarEmployeeRepository roundTrip(EmployeeRepository repo) throws IOException {
+        Path file = dir.resolve("org.snap");
+        SnapshotWriter.write(repo, file);
+        return SnapshotReader.read(file);
+    }
+
+    @Test
+    void roundTripsSampleFileWithSameAnalysis() throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream("employees.csv");
+        var builder = EmployeeRepository.builder();
+        CsvEmployeeParser.parse(in, builder::add);
+        var repo = builder.build();
+
+        var loaded = roundTrip(repo);
+
+        assertEquals(List.copyOf(repo.allEmployees()), List.copyOf(loaded.allEmployees()));
+        assertEquals(repo.getCeo(), loaded.getCeo());
+        assertEquals(repo.getInvalidManagers(), loaded.getInvalidManagers());
+        assertEquals(repo.getDuplicateIds(), loaded.getDuplicateIds());
+        for (Employee e : repo.allEmployees()) {
+            assertEquals(repo.getSubordinates(e.id()), loaded.getSubordinates(e.id()));
+            assertEquals(e, loaded.allById().get(e.id()));
+        }
+
+        assertEquals(new OrganizationAnalyzer(repo).analyze(20, 3).toString(),
+                new OrganizationAnalyzer(loaded).analyze(20, 3).toString());
+    }
+
+    @Test
+    void roundTripsLargeOrgWithDuplicatesCyclesAndSharedNames() throws Exception {
+        var builder = ColumnarEmployeeRepository.builder(0);
+        RandomOrg.of(50_000, 11).forward(10).salaryStep(0.01).employees().forEach(builder::add);
+        builder.add(new Employee(50_001, "Zoë", "Ünal", 300000, 1L));
+        builder.add(new Employee(7, "Dup", "Licate", 1234.5, 3L));
+        var repo = builder.build();
+
+        var loaded = roundTrip(repo);
+
+        assertEquals(repo.size(), loaded.size());
+        assertEquals(repo.ceoIndex(), loaded.ceoIndex());
+        for (int i = 0; i < repo.size(); i++) {
+            assertEquals(repo.employee(i), loaded.employee(i));
+            assertEquals(repo.parent(i), loaded.parent(i));
+            assertEquals(repo.childStart(i), loaded.childStart(i));
+            assertEquals(i, loaded.indexOf(repo.id(i)));
+        }
+        assertEquals(ColumnarEmployeeRepository.NONE, loaded.indexOf(60_000));
+        assertEquals(repo.getInvalidManagers(), loaded.getInvalidManagers());
+        assertEquals(List.of(7L), loaded.getDuplicates());
+        assertEquals(List.of("Duplicate employee ID: 7"), loaded.getDuplicateIds());
+        assertSame(loaded.firstName(5), loaded.firstName(findSameFirstName(loaded, 5)));
+
+        assertEquals(new OrganizationAnalyzer(repo).analyze(repo.size(), 0).toString(),
+                new OrganizationAnalyzer(loaded).analyze(loaded.size(), 0).toString());
+    }
+
+    private static int findSameFirstName(ColumnarEmployeeRepository org, int i) {
+        for (int k = i + 1; k < org.size(); k++) {
+            if (org.firstName(k).equals(org.firstName(i))) return k;
+        }
+        throw new AssertionError("no repeated first name");
+    }
+
+    @Test
+    void roundTripsEmptyRepository() throws Exception {
+        var loaded = roundTrip(new EmployeeRepository(List.of()));
+
+        assertEquals(0, loaded.size());
+        assertNull(loaded.getCeo());
+        assertTrue(loaded.allEmployees().isEmpty());
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws Exception {
+        Path csv = dir.resolve("employees.csv");
+        Files.writeString(csv, "Id,firstName,lastName,salary,managerId\n1,A,B,100,\n");
+        assertThrows(IOException.class, () -> SnapshotReader.read(csv));
+
+        Path snap = dir.resolve("cut.snap");
+        SnapshotWriter.write(new EmployeeRepository(List.of(new Employee(1, "A", "B", 100, null))), snap);
+        byte[] bytes = Files.readAllBytes(snap);
+        Files.write(snap, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> SnapshotReader.read(snap));
+    }
+}
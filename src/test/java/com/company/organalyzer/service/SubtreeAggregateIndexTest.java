@@ -0,0 +1,82 @@
+package com.company.organalyzer.service;
+
+import com.company.organalyzer.RandomOrg;
+import com.company.organalyzer.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtreeAggregateIndexTest {
+
+    @Test
+    void aggregatesWholeSubtrees() {
+        var repo = new EmployeeRepository(List.of(
+                new Employee(1, "CEO", "", 1000, null),
+                new Employee(2, "A", "", 500, 1L),
+                new Employee(3, "B", "", 300, 1L),
+                new Employee(4, "C", "", 200, 2L),
+                new Employee(5, "D", "", 100, 4L),
+                new Employee(6, "Loop", "", 100, 7L),
+                new Employee(7, "Loop", "", 100, 6L)
+        ));
+        var index = SubtreeAggregateIndex.build(repo);
+        var org = index.hierarchy().org();
+        int ceo = org.indexOf(1), a = org.indexOf(2), d = org.indexOf(5);
+
+        assertEquals(2100, index.payroll(ceo));
+        assertEquals(5, index.headcount(ceo));
+        assertEquals(420, index.averageSalary(ceo));
+        assertEquals(3, index.maxDepthBelow(ceo));
+        assertEquals(800, index.payroll(a));
+        assertEquals(2, index.maxDepthBelow(a));
+        assertEquals(1, index.headcount(d));
+        assertEquals(0, index.maxDepthBelow(d));
+
+        index.updateSalary(d, 400);
+        assertEquals(2400, index.payroll(ceo));
+        assertEquals(1100, index.payroll(a));
+        assertEquals(300, index.payroll(org.indexOf(3)));
+
+        assertThrows(IllegalArgumentException.class, () -> index.payroll(org.indexOf(6)));
+        assertThrows(IllegalArgumentException.class, () -> index.updateSalary(a, 0));
+    }
+
+    @Test
+    void matchesNaiveWalksAcrossUpdates() {
+        var index = SubtreeAggregateIndex.build(new EmployeeRepository(RandomOrg.of(3000, 3).missing(7).employees()));
+        Random rnd = new Random(3);
+        var org = index.hierarchy().org();
+        double[] salaries = new double[org.size()];
+        for (int i = 0; i < org.size(); i++) salaries[i] = org.salary(i);
+
+        for (int round = 0; round < 5; round++) {
+            for (int u = 0; u < 200; u++) {
+                int i = rnd.nextInt(org.size());
+                salaries[i] = 1 + rnd.nextInt(10000);
+                index.updateSalary(i, salaries[i]);
+            }
+            for (int q = 0; q < 300; q++) {
+                int m = rnd.nextInt(org.size());
+                double sum = 0;
+                int count = 0;
+                int deepest = 0;
+                Deque<int[]> stack = new ArrayDeque<>();
+                stack.push(new int[]{m, 0});
+                while (!stack.isEmpty()) {
+                    int[] top = stack.pop();
+                    sum += salaries[top[0]];
+                    count++;
+                    deepest = Math.max(deepest, top[1]);
+                    for (int k = org.childStart(top[0]); k < org.childEnd(top[0]); k++) {
+                        stack.push(new int[]{org.child(k), top[1] + 1});
+                    }
+                }
+                assertEquals(sum, index.payroll(m), 1e-6);
+                assertEquals(count, index.headcount(m));
+                assertEquals(deepest, index.maxDepthBelow(m));
+            }
+        }
+    }
+}